@@ -1,100 +1,248 @@
 package com.ActivityNetwork;
 
+import java.lang.ref.WeakReference;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
- * The ActivityNetwork class, which represents a network of nodes in the Critical Path Method.
+ * The ActivityNetwork class, which represents a network of nodes in the Critical Path Method. A network can also be
+ * backed by a NodeStore (see NodeStore.toNetwork), for networks too large to hold as node objects. Such a network
+ * answers reads and schedules straight from its store, and builds its node objects the first time they are needed.
  */
-public class ActivityNetwork {
+public class ActivityNetwork implements ActivityNetworkView {
   /** Unique identifier for this specific network. */
   private long networkId;
 
   /** Name of the network, assigned by user. */
   private String networkName;
 
-  /** List of nodes that belong to this network. */
+  /**
+   * List of nodes that belong to this network, sorted by order of dependencies (topological order). Deleted nodes leave
+   * an empty (null) position behind, which is removed before the list is handed out.
+   */
   private ArrayList<ActivityNode> nodeList;
 
+  /** Number of empty positions in our node list. */
+  private int vacantPositions;
+
+  /**
+   * Map of node IDs to the IDs of the nodes in this network that depend on them (the successors of each node). IDs that
+   * are not in this network (yet) are included, so that their dependents can be ordered once they are inserted.
+   */
+  private HashMap<Long, DependencySet> dependents;
+
+  /** Index of node IDs to the nodes in our node list. */
+  private HashMap<Long, ActivityNode> nodeIndex;
+
+  /** Index of node names to the nodes in our node list. Kept in sync with renames through the nodes themselves. */
+  private HashMap<String, ActivityNode> nameIndex;
+
   /** The deadline associated with network. Cannot be less than the minimal critical path sum (length). */
   private double hoursDeadline;
 
-  /// For determining critical path duration.
-  private double endDuration;
+  /** Number of changes made to the nodes of this network. Every mutating method increments this. */
+  private long version;
+
+  /** Number of changes made to the nodes or dependencies of this network. Changes of times do not count. */
+  private long structureVersion;
+
+  /** Dependency graph of this network, built lazily. Null if it has not been built yet. */
+  private NetworkGraph graph;
+
+  /** Structure version of this network our graph was built for. */
+  private long graphVersion;
+
+  /**
+   * Expected time of each node, indexed by the node indices of our graph (a column next to the graph arrays). Built
+   * with the graph, and kept in sync with the times of our nodes while the graph is current.
+   */
+  private double[] expectedTimes;
+
+  /** Schedule of this network, computed lazily. Null if it has not been computed yet. */
+  private NetworkSchedule schedule;
+
+  /** Version of this network our schedule was computed for. */
+  private long scheduleVersion;
+
+  /**
+   * True if our schedule was handed out (see computeSchedule) or is shared with a twin. A shared schedule is copied
+   * before a change of times is applied to it. Otherwise it is updated in place.
+   */
+  private boolean scheduleShared;
+
+  /**
+   * Network whose nodes and indices this network shares, as a copy-on-write twin (see twin). Null if this network owns
+   * its nodes.
+   */
+  private ActivityNetwork owner;
+
+  /** Twins that share our nodes and indices. Each one is given its own copy before we change. */
+  private ArrayList<WeakReference<ActivityNetwork>> twins;
 
-  /// For determining node id's on critical path.
-  private ArrayList<Long> critPathIds;
+  /**
+   * Store holding our nodes, if they have not been built as node objects yet (see unpack). Null if our node list and
+   * indices hold every node. A store never changes once it backs a network, so twins simply share it.
+   */
+  private NodeStore store;
 
   /**
-   * Sort the current list of nodes by order of dependencies (topological sort).
+   * Restore the topological order of our node list after adding the dependency "y depends on x". Uses the dynamic
+   * topological sort of Pearce and Kelly: if x is already before y, nothing is done. Otherwise only the region between
+   * the positions of y and x is visited. The nodes in this region that depend on y, and the nodes in this region that x
+   * depends on, are moved (the latter first) into the positions they occupied. All other nodes stay where they are.
    *
-   * @param listOfNodes List of nodes to sort.
+   * @param x Node that is depended on.
+   * @param y Node with the new dependency.
+   * @return True if the order was restored. False if x already depends on y (the new dependency forms a cycle).
    */
+  private boolean orderDependency(ActivityNode x, ActivityNode y) {
+    int lower = y.getPosition(), upper = x.getPosition();
+    if (upper < lower) {
+      return true;
+    }
 
-  @SuppressWarnings("StatementWithEmptyBody")
-  private void sortNodes(ArrayList<ActivityNode> listOfNodes) {
-    Stack<Long> stack = new Stack<>();   // Stack to deposit id's.
-    ArrayList<ActivityNode> sortedList = new ArrayList<>(nodeList);
+    // Scan forward from y: a node is affected if one of its dependencies in the region is affected.
+    boolean[] forward = new boolean[upper - lower + 1], backward = new boolean[upper - lower + 1];
+    forward[0] = true;
+    for (int p = lower + 1; p <= upper; p++) {
+      ActivityNode n = nodeList.get(p);
+      if (n != null) {
+        DependencySet dependencies = n.getDependencies();
+        for (int k = 0; k < dependencies.size(); k++) {
+          ActivityNode m = nodeIndex.get(dependencies.get(k));
+          if (m != null && m.getPosition() >= lower && forward[m.getPosition() - lower]) {
+            forward[p - lower] = true;
+            break;
+          }
+        }
+      }
+    }
+    if (forward[upper - lower]) {
+      return false;
+    }
 
-    // Using an original list to check if node has already been pushed.
-    ArrayList<ActivityNode> original = new ArrayList<>(nodeList);
-    for (ActivityNode node : listOfNodes) {
+    // Scan backward from x: every dependency in the region of an affected node is affected.
+    backward[upper - lower] = true;
+    for (int p = upper; p >= lower; p--) {
+      if (backward[p - lower]) {
+        DependencySet dependencies = nodeList.get(p).getDependencies();
+        for (int k = 0; k < dependencies.size(); k++) {
+          ActivityNode m = nodeIndex.get(dependencies.get(k));
+          if (m != null && m.getPosition() >= lower) {
+            backward[m.getPosition() - lower] = true;
+          }
+        }
+      }
+    }
 
-      if (!original.contains(node)) {
-        // Triggers if node has already been pushed.
-      } else if (node.getDependencies().size() == 0) {
-        stack.push(node.getNodeId());
-        original.remove(node);
+    // Move the nodes x depends on ahead of the nodes that depend on y, using the same set of positions.
+    ActivityNode[] moved = new ActivityNode[upper - lower + 1];
+    int[] positions = new int[upper - lower + 1];
+    int count = 0, placed = 0;
+    for (int p = lower; p <= upper; p++) {
+      if (backward[p - lower]) {
+        moved[count++] = nodeList.get(p);
+      }
+      if (backward[p - lower] || forward[p - lower]) {
+        positions[placed++] = p;
+      }
+    }
+    for (int p = lower; p <= upper; p++) {
+      if (forward[p - lower]) {
+        moved[count++] = nodeList.get(p);
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      moved[i].setPosition(positions[i]);
+      nodeList.set(positions[i], moved[i]);
+    }
 
-      } else {
-        // Make dependency array.
-        Set<Long> depend = node.getDependencies();
-        Long[] depArray = depend.toArray(new Long[depend.size()]);
+    return true;
+  }
 
-        // Call topSort on current node.
-        topSort(node, depArray, stack, original);
+  /**
+   * Remove the empty positions left behind by deleted nodes from our node list, and renumber the remaining nodes.
+   */
+  private void compactNodeList() {
+    if (vacantPositions == 0) {
+      return;
+    }
+
+    ArrayList<ActivityNode> compacted = new ArrayList<>(nodeList.size() - vacantPositions);
+    for (ActivityNode n : nodeList) {
+      if (n != null) {
+        n.setPosition(compacted.size());
+        compacted.add(n);
       }
     }
-    int siz = stack.size();
-    for (int elemeno = 1; elemeno <= siz; elemeno++) {
-      Long nid = stack.pop();
-      ActivityNode noNoNode = retrieveNodeReference(nid);
-      sortedList.remove(siz - elemeno);
-      sortedList.add(siz - elemeno, noNoNode);
 
+    nodeList = compacted;
+    vacantPositions = 0;
+  }
+
+  /**
+   * Record in our dependents index that the given node depends on each of the given IDs.
+   *
+   * @param node         Node (belonging to this network) with the dependencies.
+   * @param dependencies IDs the node depends on.
+   */
+  private void indexDependents(ActivityNode node, DependencySet dependencies) {
+    for (int k = 0; k < dependencies.size(); k++) {
+      dependents.computeIfAbsent(dependencies.get(k), d -> new DependencySet()).add(node.getNodeId());
     }
-    nodeList = sortedList;
   }
 
   /**
-   * Sort the dependencies given recursively.
+   * Remove from our dependents index that the given node depends on each of the given IDs.
    *
-   * @param node      Current working node.
-   * @param dependArr Dependencies associated with this node.
-   * @param topStack  Stack to sort nodes into.
-   * @param original  Original, unmodified network.
+   * @param node         Node (belonging to this network) with the dependencies.
+   * @param dependencies IDs the node no longer depends on.
    */
-  private void topSort(ActivityNode node, Long[] dependArr, Stack<Long> topStack, ArrayList<ActivityNode> original) {
-    // Check all dependencies in array.
-    for (Long newId : dependArr) {
-      // Create/get new node from dependency list.
-      ActivityNode newNode = retrieveNodeReference(newId);
+  private void unindexDependents(ActivityNode node, DependencySet dependencies) {
+    for (int k = 0; k < dependencies.size(); k++) {
+      DependencySet d = dependents.get(dependencies.get(k));
+      if (d != null && d.remove(node.getNodeId()) && d.isEmpty()) {
+        dependents.remove(dependencies.get(k));
+      }
+    }
+  }
 
-      if (newNode.getDependencies().size() != 0 && original.contains(newNode)) {
-        Set<Long> newDepend = newNode.getDependencies();
-        Long[] newDepArr = newDepend.toArray(new Long[newDepend.size()]);
-        topSort(newNode, newDepArr, topStack, original);
-      } else {
-        // newNode doesn't have dependencies.
-        if (original.contains(newNode)) {
-          // New node hasn't been pushed yet.
-          topStack.push(newNode.getNodeId());
-          original.remove(newNode);
-        }
+  /**
+   * Remove the given node from our node list and our indices. The dependencies of other nodes are not touched.
+   *
+   * @param node Node (belonging to this network) to remove.
+   */
+  private void removeNode(ActivityNode node) {
+    unindexDependents(node, node.getDependencies());
+    nodeIndex.remove(node.getNodeId());
+    nameIndex.remove(node.getName());
+    node.setNetwork(null);
+    nodeList.set(node.getPosition(), null);
+    vacantPositions++;
+
+    // Don't let our empty positions outnumber our nodes.
+    if (vacantPositions > nodeList.size() / 2) {
+      compactNodeList();
+    }
+  }
+
+  /**
+   * Order all nodes that were waiting for the given node to be inserted after it.
+   *
+   * @param node Node that was just inserted.
+   * @return True if the order was restored. False if one of the waiting nodes forms a cycle with the given node.
+   */
+  private boolean orderPendingDependents(ActivityNode node) {
+    DependencySet waiting = dependents.get(node.getNodeId());
+    if (waiting == null) {
+      return true;
+    }
+
+    for (int k = 0; k < waiting.size(); k++) {
+      if (!orderDependency(node, nodeIndex.get(waiting.get(k)))) {
+        return false;
       }
     }
-    topStack.push(node.getNodeId());
-    original.remove(node);
+    return true;
   }
 
   /**
@@ -106,9 +254,83 @@ public class ActivityNetwork {
     this.networkId = networkId;
     this.networkName = networkName;
     this.nodeList = new ArrayList<>();
+    this.nodeIndex = new HashMap<>();
+    this.nameIndex = new HashMap<>();
+    this.vacantPositions = 0;
+    this.dependents = new HashMap<>();
     this.hoursDeadline = 0;
-    this.endDuration = 0;
-    this.critPathIds = new ArrayList<>();
+    this.version = 0;
+    this.structureVersion = 0;
+    this.graph = null;
+    this.graphVersion = -1;
+    this.expectedTimes = null;
+    this.schedule = null;
+    this.scheduleVersion = -1;
+    this.scheduleShared = false;
+    this.owner = null;
+    this.twins = new ArrayList<>();
+    this.store = null;
+  }
+
+  /**
+   * Constructor. Creates a network backed by the given store, whose nodes were already checked (see
+   * NodeStore.toNetwork).
+   *
+   * @param networkId     Unique identifier for this specific network.
+   * @param networkName   Name of the network.
+   * @param hoursDeadline Deadline of the network.
+   * @param store         Store holding the nodes of the network.
+   * @param graph         Sorted dependency graph of the stored nodes.
+   * @param expectedTimes Expected time of each node, indexed by the node indices of the graph.
+   */
+  ActivityNetwork(long networkId, String networkName, double hoursDeadline, NodeStore store, NetworkGraph graph,
+                  double[] expectedTimes) {
+    this(networkId, networkName);
+    this.hoursDeadline = hoursDeadline;
+    this.store = store;
+    this.graph = graph;
+    this.graphVersion = structureVersion;
+    this.expectedTimes = expectedTimes;
+  }
+
+  /**
+   * Build a node object for every node of our store, in O(V + E) time, after which our store is no longer used. Our
+   * graph is already sorted, so the nodes are listed in the order of its node indices, and the graph, the column of
+   * expected times and the schedule all stay current. Does nothing if we are not backed by a store. Every method that
+   * reads our node list or indices **MUST** call this first (sortedNodes and beforeChange do).
+   */
+  private void unpack() {
+    if (store == null) {
+      return;
+    }
+
+    // Our graph and expected times may be shared with twins of this network, which keep using the store.
+    NetworkGraph g = computeGraph();
+    nodeList = new ArrayList<>(g.size());
+    nodeIndex = new HashMap<>(g.size() * 2);
+    nameIndex = new HashMap<>(g.size() * 2);
+    dependents = new HashMap<>();
+    for (int k = 0; k < g.size(); k++) {
+      ActivityNode n = store.retrieveNode(store.indexOf(g.getNodeId(k)));
+      n.setNetwork(this);
+      n.setPosition(k);
+      nodeList.add(n);
+      nodeIndex.put(n.getNodeId(), n);
+      nameIndex.put(n.getName(), n);
+      indexDependents(n, n.getDependencies());
+    }
+    expectedTimes = expectedTimes.clone();
+    store = null;
+  }
+
+  /**
+   * Check if this network and the given network are backed by the same store, and so hold the same nodes.
+   *
+   * @param a Network to compare with.
+   * @return True if both networks are backed by the same store. False otherwise.
+   */
+  boolean sharesStoreWith(ActivityNetwork a) {
+    return store != null && store == a.store;
   }
 
   /**
@@ -120,25 +342,188 @@ public class ActivityNetwork {
   public String toString() {
     StringBuilder networkString = new StringBuilder("| ");
 
-    for (ActivityNode n : nodeList) {
+    for (ActivityNode n : sortedNodes()) {
       networkString.append(n.getName()).append(" | ");
     }
     return networkString.toString();
   }
 
   /**
-   * Cloning method, using for creating a new instance of the current network.
+   * Cloning method, using for creating a new instance of the current network in O(1) time. The clone shares our nodes,
+   * indices, graph, and schedule until one of the two networks changes. Right before that happens, the clone is given
+   * its own copy of each node (a node can only belong to one network), so both networks can be modified separately.
    */
   ActivityNetwork twin() {
+    ActivityNetwork o = (owner != null) ? owner : this;
+    compactNodeList();
+
     ActivityNetwork a = new ActivityNetwork(this.getNetworkId(), this.getNetworkName());
-    for (ActivityNode n : this.getNodeList()) {
-      a.insertNode(n);
+    a.store = store;
+    a.nodeList = nodeList;
+    a.dependents = dependents;
+    a.nodeIndex = nodeIndex;
+    a.nameIndex = nameIndex;
+    a.hoursDeadline = hoursDeadline;
+    a.version = version;
+    a.structureVersion = structureVersion;
+    a.graph = graph;
+    a.graphVersion = graphVersion;
+    a.expectedTimes = expectedTimes;
+    a.schedule = schedule;
+    a.scheduleVersion = scheduleVersion;
+    a.scheduleShared = scheduleShared = true;
+    if (store != null) {
+      return a;
+    }
+
+    a.owner = o;
+    o.twins.removeIf(t -> t.get() == null);
+    o.twins.add(new WeakReference<>(a));
+    return a;
+  }
+
+  /**
+   * Tell the owner of this twin that the twin will not be used again, so that a change to the owner no longer copies
+   * the shared nodes for it. Does nothing if this network is not a twin (or already has its own nodes). The network
+   * **MUST NOT** be used afterwards.
+   */
+  void release() {
+    if (owner != null) {
+      owner.twins.removeIf(t -> t.get() == null || t.get() == this);
+    }
+  }
+
+  /**
+   * Make sure this network can be changed without affecting any other network. A twin that still shares the nodes of
+   * another network copies them first. A network that still shares its nodes hands a single copy to the first of its
+   * twins, which the other twins then share, so a change costs one copy no matter how many twins there are.
+   * Every method that changes our nodes or indices **MUST** call this before it reads them.
+   */
+  void beforeChange() {
+    if (store != null) {
+      unpack();
+    } else if (owner != null) {
+      detach();
+    } else if (!twins.isEmpty()) {
+      ActivityNetwork c = null;
+      double[] times = null;
+      for (WeakReference<ActivityNetwork> t : twins) {
+        ActivityNetwork a = t.get();
+        if (a == null || a.owner != this) {
+          continue;
+        }
+
+        // The expected times are shared too, unless the twin has built its own graph since.
+        boolean sharesTimes = expectedTimes != null && a.expectedTimes == expectedTimes;
+        if (c == null) {
+          a.detach();
+          c = a;
+          times = sharesTimes ? a.expectedTimes : null;
+        } else {
+          a.nodeList = c.nodeList;
+          a.dependents = c.dependents;
+          a.nodeIndex = c.nodeIndex;
+          a.nameIndex = c.nameIndex;
+          if (sharesTimes) {
+            a.expectedTimes = (times != null) ? times : (times = expectedTimes.clone());
+          }
+          a.owner = c;
+          c.twins.add(new WeakReference<>(a));
+        }
+      }
+      twins.clear();
+    }
+  }
+
+  /**
+   * Give this twin its own copy of the nodes and indices it shares with its owner, in O(V + E) time. The shared node
+   * list is already sorted and compact, so the copies keep their positions and nothing is sorted again. The shared
+   * graph and schedule never change, so they are kept.
+   */
+  private void detach() {
+    ArrayList<ActivityNode> nodes = new ArrayList<>(nodeList.size());
+    nodeIndex = new HashMap<>(nodeIndex.size() * 2);
+    nameIndex = new HashMap<>(nameIndex.size() * 2);
+    for (ActivityNode n : nodeList) {
+      ActivityNode c = n.twin();
+      c.setNetwork(this);
+      c.setPosition(nodes.size());
+      nodes.add(c);
+      nodeIndex.put(c.getNodeId(), c);
+      nameIndex.put(c.getName(), c);
+    }
+    nodeList = nodes;
+
+    HashMap<Long, DependencySet> d = new HashMap<>(dependents.size() * 2);
+    dependents.forEach((k, v) -> d.put(k, new DependencySet(v)));
+    dependents = d;
+    if (expectedTimes != null) {
+      expectedTimes = expectedTimes.clone();
+    }
+    owner = null;
+  }
+
+  /**
+   * Build a new network from our nodes, with the nodes of the given IDs replaced, removed (null), or added. Every node
+   * is copied, and the new network is sorted once (see applyBatch). Used to apply the deltas of a network's history.
+   *
+   * @param changes       The new state of each changed node, by node ID. Null for the nodes to remove.
+   * @param hoursDeadline Deadline of the new network.
+   * @return The new network.
+   * @throws IllegalStateException If the nodes cannot form a network (e.g. duplicate names or a cycle), which means the
+   *                               changes were not made to this network.
+   */
+  ActivityNetwork withChanges(Map<Long, ActivityNode> changes, double hoursDeadline) {
+    ArrayList<ActivityNode> nodes = new ArrayList<>(nodeList.size() + changes.size());
+    for (ActivityNode n : sortedNodes()) {
+      ActivityNode c = changes.containsKey(n.getNodeId()) ? changes.get(n.getNodeId()) : n;
+      if (c != null) {
+        nodes.add(c.twin());
+      }
     }
+    changes.forEach((id, c) -> {
+      if (c != null && !nodeIndex.containsKey(id)) {
+        nodes.add(c.twin());
+      }
+    });
 
-    a.hoursDeadline = this.hoursDeadline;
+    ActivityNetwork a = new ActivityNetwork(networkId, networkName);
+    if (!a.insertNodes(nodes)) {
+      throw new IllegalStateException("Changes do not apply to network " + networkId + ".");
+    }
+    a.hoursDeadline = hoursDeadline;
     return a;
   }
 
+  /**
+   * Estimate the number of bytes this network retains: its nodes, and the indices, graph and schedule kept for each
+   * node and dependency. Meant for limiting memory use (see NetworkController), not as an exact measure.
+   *
+   * @return The estimated size of this network in bytes.
+   */
+  long estimateBytes() {
+    if (store != null) {
+      return 256 + store.estimateBytes() + 48L * graph.size();
+    }
+
+    long bytes = 256;
+    for (ActivityNode n : sortedNodes()) {
+      bytes += estimateBytes(n);
+    }
+    return bytes;
+  }
+
+  /**
+   * Estimate the number of bytes the given node retains as part of a network: the node itself, and its entries in our
+   * indices, graph and schedule.
+   *
+   * @param n Node to estimate the size of.
+   * @return The estimated size of the node in bytes.
+   */
+  static long estimateBytes(ActivityNode n) {
+    return 224 + 32L * n.getDependencies().size() + n.estimateBytes();
+  }
+
   /**
    * Check if a given node is in the network using the node's ID.
    *
@@ -146,12 +531,7 @@ public class ActivityNetwork {
    * @return True if the node exists in the network. False otherwise.
    */
   boolean isNodeInNetwork(long nodeId) {
-    for (ActivityNode n : this.nodeList) {
-      if (n.getNodeId() == nodeId) {
-        return true;
-      }
-    }
-    return false;
+    return (store != null) ? store.indexOf(nodeId) >= 0 : nodeIndex.containsKey(nodeId);
   }
 
   /**
@@ -161,29 +541,171 @@ public class ActivityNetwork {
    * @return True if the node exists in the network. False otherwise.
    */
   public boolean isNodeInNetwork(String nodeName) {
-    for (ActivityNode n : this.nodeList) {
-      if (n.getName().equals(nodeName)) {
-        return true;
-      }
-    }
-    return false;
+    unpack();
+    return nameIndex.containsKey(nodeName);
   }
 
   /**
-   * Insert the given node into node list. Checks for node ID and name uniqueness.
+   * Insert the given node into node list. Checks for node ID and name uniqueness. If the node already belongs to
+   * another network, a clone of the node is inserted instead. The node is appended to the end of our order, so only
+   * nodes that were inserted earlier with a dependency on this node need to be reordered.
    *
    * @param node Node to insert into the node list network.
-   * @return True if the insertion was successful. False otherwise.
+   * @return True if the insertion was successful. False if the node is not unique, or if the node would form a cycle
+   * with nodes that depend on it.
    */
   public boolean insertNode(ActivityNode node) {
     if (isNodeInNetwork(node.getNodeId()) || isNodeInNetwork(node.getName())) {
       return false;
     }
+    if (node.getNetwork() != null) {
+      node = node.twin();
+    }
+    beforeChange();
 
-    // If node is unique, insert and sort the list.
+    // If node is unique, insert and index the node.
+    node.setNetwork(this);
+    node.setPosition(nodeList.size());
     nodeList.add(node);
-    sortNodes(nodeList);
+    nodeIndex.put(node.getNodeId(), node);
+    nameIndex.put(node.getName(), node);
+
+    // Dependencies that are not in the network yet are ordered once they are inserted.
+    indexDependents(node, node.getDependencies());
+    if (!orderPendingDependents(node)) {
+      // Nodes that were ordered before the cycle was found keep their new (valid) positions.
+      removeNode(node);
+      structureVersion++;
+      return false;
+    }
+
+    version++;
+    structureVersion++;
+    return true;
+  }
+
+  /**
+   * Insert all of the given nodes into the node list, in order. Checks for node ID and name uniqueness, and orders the
+   * nodes once at the end (see applyBatch).
+   *
+   * @param nodes Nodes to insert into the node list network.
+   * @return True if every node was inserted. False if no node was inserted.
+   */
+  public boolean insertNodes(Collection<ActivityNode> nodes) {
+    NetworkBatch batch = new NetworkBatch();
+    batch.insertNodes(nodes);
+    return applyBatch(batch);
+  }
+
+  /**
+   * Apply all changes in the given batch. Each change is checked in order, as if it was applied on its own, against
+   * the nodes staged by the changes before it. The network is then sorted once at the end (Kahn's algorithm, which
+   * prefers nodes in their current order so that an already sorted network keeps its order). If any change fails, or
+   * if the final network holds a cycle, no change is applied.
+   *
+   * @param batch Changes to apply to the network.
+   * @return True if every change was applied. False if no change was applied.
+   */
+  public boolean applyBatch(NetworkBatch batch) {
+    // Stage our current nodes in their current order. Dependency changes are staged separately, along with the index
+    // of the change that set them (existing nodes are at -1). Deleted node IDs remember the index of their deletion.
+    beforeChange();
+    LinkedHashMap<Long, ActivityNode> staged = new LinkedHashMap<>();
+    sortedNodes().forEach(n -> staged.put(n.getNodeId(), n));
+    HashMap<String, ActivityNode> stagedNames = new HashMap<>(nameIndex);
+    HashMap<Long, DependencySet> stagedDependencies = new HashMap<>();
+    HashMap<Long, Integer> dependenciesSetAt = new HashMap<>(), deletedAt = new HashMap<>();
+
+    ArrayList<NetworkBatch.Change> changes = batch.getChanges();
+    for (int i = 0; i < changes.size(); i++) {
+      NetworkBatch.Change c = changes.get(i);
+
+      switch (c.kind) {
+        case INSERT:
+          if (staged.containsKey(c.nodeId) || stagedNames.containsKey(c.node.getName())) {
+            return false;
+          }
+          ActivityNode node = (c.node.getNetwork() != null) ? c.node.twin() : c.node;
+          staged.put(c.nodeId, node);
+          stagedNames.put(node.getName(), node);
+          stagedDependencies.put(c.nodeId, node.getDependencies());
+          dependenciesSetAt.put(c.nodeId, i);
+          break;
+
+        case DELETE:
+          ActivityNode removed = staged.remove(c.nodeId);
+          if (removed == null) {
+            return false;
+          }
+          stagedNames.remove(removed.getName());
+          stagedDependencies.remove(c.nodeId);
+          dependenciesSetAt.remove(c.nodeId);
+          deletedAt.put(c.nodeId, i);
+          break;
+
+        case SET_DEPENDENCIES:
+          if (!staged.containsKey(c.nodeId) || c.dependencies.contains(c.nodeId) ||
+              !c.dependencies.stream().allMatch(staged::containsKey)) {
+            return false;
+          }
+          // The batch keeps its own set, so that it can be applied again (or to another network).
+          stagedDependencies.put(c.nodeId, new DependencySet(c.dependencies));
+          dependenciesSetAt.put(c.nodeId, i);
+          break;
+      }
+    }
+
+    // Settle the dependencies of each staged node. A deletion purges the deleted node from dependencies set before it.
+    ArrayList<ActivityNode> nodes = new ArrayList<>(staged.values());
+    ArrayList<DependencySet> dependencies = new ArrayList<>(nodes.size());
+    for (ActivityNode n : nodes) {
+      DependencySet d = stagedDependencies.getOrDefault(n.getNodeId(), n.getDependencies());
+      int setAt = dependenciesSetAt.getOrDefault(n.getNodeId(), -1);
+
+      if (!deletedAt.isEmpty() && d.stream().anyMatch(d_i -> deletedAt.getOrDefault(d_i, -1) > setAt)) {
+        DependencySet kept = new DependencySet();
+        for (int k = 0; k < d.size(); k++) {
+          if (deletedAt.getOrDefault(d.get(k), -1) <= setAt) {
+            kept.add(d.get(k));
+          }
+        }
+        d = kept;
+      }
+      dependencies.add(d);
+    }
+
+    // Sort the staged network once. If there is no order, the staged network holds a cycle.
+    int[] order = new NetworkGraph(nodes.stream().mapToLong(ActivityNode::getNodeId).toArray(), dependencies).sort();
+    if (order == null) {
+      return false;
+    }
 
+    // Every change is valid. Detach the nodes that were removed, and rebuild our node list and indices.
+    for (ActivityNode n : nodeIndex.values()) {
+      if (staged.get(n.getNodeId()) != n) {
+        n.setNetwork(null);
+      }
+    }
+    nodeList = new ArrayList<>(nodes.size());
+    nodeIndex.clear();
+    nameIndex.clear();
+    dependents.clear();
+    vacantPositions = 0;
+
+    for (int i : order) {
+      ActivityNode n = nodes.get(i);
+      n.setNetwork(this);
+      n.setPosition(nodeList.size());
+      n.replaceDependencies(dependencies.get(i));
+
+      nodeList.add(n);
+      nodeIndex.put(n.getNodeId(), n);
+      nameIndex.put(n.getName(), n);
+      indexDependents(n, n.getDependencies());
+    }
+
+    version++;
+    structureVersion++;
     return true;
   }
 
@@ -194,13 +716,9 @@ public class ActivityNetwork {
    * @return -1 if a node does not exist with that name. Otherwise, the node ID of the node with the given name.
    */
   public long nodeIdFromName(String nodeName) {
-    for (ActivityNode n : this.nodeList) {
-      if (n.getName().equals(nodeName)) {
-        return n.getNodeId();
-      }
-    }
-
-    return -1;
+    unpack();
+    ActivityNode n = nameIndex.get(nodeName);
+    return (n == null) ? -1 : n.getNodeId();
   }
 
   /**
@@ -211,17 +729,56 @@ public class ActivityNetwork {
    * given ID.
    */
   public String nodeNameFromId(long nodeID) {
-    for (ActivityNode n : this.nodeList) {
-      if (n.getNodeId() == nodeID) {
-        return n.getName();
-      }
+    if (store != null) {
+      int i = store.indexOf(nodeID);
+      return (i < 0) ? "" : store.getName(i);
     }
 
-    return "";
+    ActivityNode n = nodeIndex.get(nodeID);
+    return (n == null) ? "" : n.getName();
   }
 
   /**
-   * Delete the node in the network with the given node ID. Checks for node existence.
+   * Rename the node with the given ID. Checks for node existence and name uniqueness.
+   *
+   * @param nodeId   ID of the node to rename.
+   * @param nodeName New name of the node.
+   * @return True if the node exists and was renamed. False otherwise.
+   */
+  public boolean renameNode(long nodeId, String nodeName) {
+    beforeChange();
+    ActivityNode n = nodeIndex.get(nodeId);
+    ActivityNode m = nameIndex.get(nodeName);
+    if (n == null || (m != null && m != n)) {
+      return false;
+    }
+
+    n.setName(nodeName);
+    return true;
+  }
+
+  /**
+   * Move the given node to its new name in our name index. This is called by the node itself before it is renamed.
+   *
+   * @param node     Node (belonging to this network) that is being renamed.
+   * @param nodeName New name of the node.
+   * @return True if the name index was updated. False if another node already has the given name.
+   */
+  boolean reindexNodeName(ActivityNode node, String nodeName) {
+    beforeChange();
+    ActivityNode m = nameIndex.get(nodeName);
+    if (m != null && m != node) {
+      return false;
+    }
+
+    nameIndex.remove(node.getName());
+    nameIndex.put(nodeName, node);
+    return true;
+  }
+
+  /**
+   * Delete the node in the network with the given node ID. Checks for node existence. Removing a node never breaks our
+   * order, so the remaining nodes are not moved. Only the nodes that depend on the deleted node are visited.
    *
    * @param nodeId ID of the node to delete.
    * @return True if the node existed in the network. False otherwise.
@@ -230,16 +787,52 @@ public class ActivityNetwork {
     if (!isNodeInNetwork(nodeId)) {
       return false;
     }
+    beforeChange();
 
-    // If node exists in network, delete from the node list.
-    nodeList.removeIf(n -> n.getNodeId() == nodeId);
+    // If node exists in network, delete from the node list and our indices.
+    removeNode(retrieveNodeReference(nodeId));
 
-    // Iterate through node list and purge this dependency. Resort the list.
-    for (ActivityNode n : nodeList) {
-      n.setDependencies(n.getDependencies().stream().filter(d -> d != nodeId).collect(Collectors.toSet()));
+    // Purge this dependency from the nodes that depend on it. No other node is visited.
+    DependencySet successors = dependents.remove(nodeId);
+    if (successors != null) {
+      for (int k = 0; k < successors.size(); k++) {
+        nodeIndex.get(successors.get(k)).getDependencies().remove(nodeId);
+      }
+    }
+
+    version++;
+    structureVersion++;
+    return true;
+  }
+
+  /**
+   * Update the node with the same ID as the given node to match it (name, description, times, and dependencies). This
+   * is meant for nodes obtained from retrieveNode: the node keeps its place in the network, so nodes that depend on it
+   * keep their dependency, and a change of times only updates the affected part of the schedule. Checks for node
+   * existence, name uniqueness, and dependency validity (see setDependencies).
+   *
+   * @param node Node holding the new values.
+   * @return True if the node was updated. False if the node does not exist, the name is taken by another node, or the
+   * dependencies are invalid. In that case, the node is left as it was.
+   */
+  public boolean updateNode(ActivityNode node) {
+    beforeChange();
+    ActivityNode n = nodeIndex.get(node.getNodeId());
+    ActivityNode m = nameIndex.get(node.getName());
+    if (n == null || (m != null && m != n)) {
+      return false;
+    }
+    if (!n.getDependencies().equals(node.getDependencies()) &&
+        !setDependencies(n.getNodeId(), new HashSet<>(node.getDependencies()))) {
+      return false;
     }
-    sortNodes(nodeList);
 
+    n.setName(node.getName());
+    n.setDescription(node.getDescription());
+    if (n.getOptimisticTime() != node.getOptimisticTime() || n.getNormalTime() != node.getNormalTime() ||
+        n.getPessimisticTime() != node.getPessimisticTime()) {
+      n.setTimes(node.getOptimisticTime(), node.getNormalTime(), node.getPessimisticTime());
+    }
     return true;
   }
 
@@ -250,14 +843,42 @@ public class ActivityNetwork {
    * @return Node object corresponding to the given node ID. Otherwise, return an empty node with a node ID of -1.
    */
   public ActivityNode retrieveNode(long nodeId) {
-    for (ActivityNode n : this.nodeList) {
-      if (nodeId == n.getNodeId()) {
-        return n.twin();
-      }
+    if (store != null) {
+      int i = store.indexOf(nodeId);
+      return (i < 0) ? new ActivityNode(-1, "", "", 0, 0, 0) : store.retrieveNode(i);
     }
 
-    // Node is not in list. Return an empty node with blank fields and zero fields.
-    return new ActivityNode(-1, "", "", 0, 0, 0);
+    ActivityNode n = nodeIndex.get(nodeId);
+
+    // If the node is not in list, return an empty node with blank fields and zero fields.
+    return (n == null) ? new ActivityNode(-1, "", "", 0, 0, 0) : n.twin();
+  }
+
+  /**
+   * Return a read-only view of the node given the node ID, without copying it. A network backed by a store builds the
+   * node from its store instead.
+   *
+   * @param nodeId ID of the node to view.
+   * @return A view of the node corresponding to the given node ID. Null if the node does not exist.
+   */
+  public ActivityNodeView viewNode(long nodeId) {
+    if (store != null) {
+      int i = store.indexOf(nodeId);
+      return (i < 0) ? null : store.retrieveNode(i);
+    }
+
+    return nodeIndex.get(nodeId);
+  }
+
+  /**
+   * Return the node with the given ID itself, without copying it. The node **MUST NOT** be changed.
+   *
+   * @param nodeId ID of the node to find.
+   * @return The node with the given ID. Null if the node does not exist.
+   */
+  ActivityNode getNode(long nodeId) {
+    unpack();
+    return nodeIndex.get(nodeId);
   }
 
   /**
@@ -267,47 +888,112 @@ public class ActivityNetwork {
    * @return Node object corresponding to the given node ID. Otherwise, return an empty node with a node ID of -1.
    */
   private ActivityNode retrieveNodeReference(long nodeId) {
-    for (ActivityNode n : this.nodeList) {
-      if (nodeId == n.getNodeId()) {
-        return n;
-      }
-    }
+    ActivityNode n = nodeIndex.get(nodeId);
 
-    // Node is not in list. Return an empty node with blank fields and zero fields.
-    return new ActivityNode(-1, "", "", 0, 0, 0);
+    // If the node is not in list, return an empty node with blank fields and zero fields.
+    return (n == null) ? new ActivityNode(-1, "", "", 0, 0, 0) : n;
   }
 
   /**
-   * Set the dependencies of the node with the given ID. Verify that each dependency exists in the network.
+   * Set the dependencies of the node with the given ID. Verify that each dependency exists in the network, and that
+   * no dependency forms a cycle. Only the new dependencies are ordered, as removed dependencies never break our order.
    *
    * @param nodeId       ID of the node to set the dependencies of.
    * @param dependencies The new node's dependencies.
-   * @return True if all dependencies in D exist in the network. False otherwise.
+   * @return True if the node and all dependencies in D exist in the network, and no cycle is formed. False otherwise.
    */
   boolean setDependencies(long nodeId, Set<Long> dependencies) {
-    // Verify that the dependencies actually exist.
+    // Verify that the node and the dependencies actually exist.
+    if (!isNodeInNetwork(nodeId) || dependencies.contains(nodeId)) {
+      return false;
+    }
     for (Long d : dependencies) {
       if (!isNodeInNetwork(d)) {
         return false;
       }
     }
 
-    // If they do exist, set the given node's dependencies. Resort our node list.
-    retrieveNodeReference(nodeId).setDependencies(dependencies);
-    sortNodes(nodeList);
+    // If they do exist, set the given node's dependencies. Order each new dependency, and revert if we find a cycle.
+    beforeChange();
+    ActivityNode node = retrieveNodeReference(nodeId);
+    DependencySet previous = node.getDependencies();
+    node.replaceDependencies(new DependencySet(dependencies));
+
+    for (Long d : dependencies) {
+      if (!previous.contains(d) && !orderDependency(retrieveNodeReference(d), node)) {
+        node.replaceDependencies(previous);
+        structureVersion++;
+        return false;
+      }
+    }
+    unindexDependents(node, previous);
+    indexDependents(node, node.getDependencies());
+
+    version++;
+    structureVersion++;
     return true;
   }
 
+  /**
+   * Check if the node with the first ID must finish before the node with the second ID can start, i.e. if the second
+   * node depends on the first one, directly or through other nodes. Nodes that come later in our order can never be
+   * upstream, so most queries are answered in O(1) time (see NetworkGraph.reaches).
+   *
+   * @param upstreamId   ID of the node that may be depended on.
+   * @param downstreamId ID of the node that may depend on the other node.
+   * @return True if both nodes exist and the second node depends on the first one. False otherwise.
+   */
+  public boolean isUpstream(long upstreamId, long downstreamId) {
+    if (store != null) {
+      NetworkGraph g = computeGraph();
+      int i = g.indexOf(upstreamId), j = g.indexOf(downstreamId);
+      return i >= 0 && j >= 0 && g.reaches(i, j);
+    }
+
+    ActivityNode upstream = nodeIndex.get(upstreamId), downstream = nodeIndex.get(downstreamId);
+    if (upstream == null || downstream == null || upstream.getPosition() >= downstream.getPosition()) {
+      return false;
+    } else if (downstream.getDependencies().contains(upstreamId)) {
+      return true;
+    }
+
+    NetworkGraph g = computeGraph();
+    return g.reaches(g.indexOf(upstreamId), g.indexOf(downstreamId));
+  }
+
+  /**
+   * Record that the times of the given node have changed. This is called by the node itself. If our schedule is
+   * current, it is updated incrementally instead of being recomputed on the next request.
+   *
+   * @param node Node (belonging to this network) whose times have changed.
+   */
+  void nodeTimesChanged(ActivityNode node) {
+    boolean scheduleCurrent = schedule != null && scheduleVersion == version;
+    version++;
+    if (graph != null && graphVersion == structureVersion) {
+      expectedTimes[graph.indexOf(node.getNodeId())] = node.getExpectedTime();
+    }
+
+    // Only the times before and after this node can move, so update the current schedule. A schedule someone else
+    // holds is copied first (in O(V) time), after which the copy is ours to update in place.
+    if (scheduleCurrent) {
+      if (scheduleShared) {
+        schedule = schedule.withExpectedTime(node.getNodeId(), node.getExpectedTime());
+        scheduleShared = false;
+      } else {
+        schedule.setExpectedTime(node.getNodeId(), node.getExpectedTime());
+      }
+      scheduleVersion = version;
+    }
+  }
+
   /**
    * Compute the sum of the critical path times. This represents the minimum time a project requires to completion.
    *
    * @return The sum of the critical path times in hours.
    */
   public double computeCriticalPathTime() {
-    List<Double> eta = computeCriticalPath().stream().map(n_i ->
-        retrieveNodeReference(n_i).getTimes()[3]).collect(Collectors.toList());
-
-    return eta.stream().reduce((double) 0, (n_1, n_2) -> (n_1 + n_2));
+    return currentSchedule().getDuration();
   }
 
   /**
@@ -335,136 +1021,97 @@ public class ActivityNetwork {
 //  }
 
   /**
-   * Compute the earliest time the node with the given ID can finish.
+   * Compute the earliest and latest start and finish times of every node in the network. This performs one forward
+   * pass and one backward pass over our (topologically sorted) dependency graph and column of expected times, but only
+   * if the network has changed since the last time the schedule was computed. Otherwise the cached schedule is
+   * returned. The returned schedule never changes: the next change of times copies it instead of updating it in place.
    *
-   * @param nodeId ID of the node to compute the EF of.
-   * @return The earliest finish time of the given node.
+   * @return The schedule of the current network.
    */
-  @SuppressWarnings("Duplicates")
-  public double computeEarliestFinishTime(long nodeId) {
-    double number = 0;
-
-    for (ActivityNode aNodeList : nodeList) {
-      if (aNodeList.getNodeId() == nodeId) {
-        number = number + aNodeList.getTimes()[3];
-        break;
-      } else {
-        number = number + aNodeList.getTimes()[3];
-      }
-
-    }
-    return number;
+  public NetworkSchedule computeSchedule() {
+    NetworkSchedule s = currentSchedule();
+    scheduleShared = true;
+    return s;
   }
 
-
   /**
-   * Compute the latest time the node with the given ID can finish.
+   * Compute our schedule (see computeSchedule) for use within this network only. The schedule **MUST NOT** be kept, as
+   * a change of times may update it in place.
    *
-   * @param nodeId ID of the node to compute the LF of.
-   * @return The latest finish time of the given node.
+   * @return The schedule of the current network.
    */
-  @SuppressWarnings("Duplicates")
-  private double computeLatestFinishTime(long nodeId) {
-    double number = computeEarliestFinishTime(nodeId);
-
-    for (int i = 0; i < nodeList.size(); i++) {
-      if (nodeList.get(i).getNodeId() == nodeId) {
-        break;
-      } else {
-        number = number - nodeList.get(nodeList.size() - (i + 1)).getTimes()[3];
-      }
+  private NetworkSchedule currentSchedule() {
+    if (schedule == null || scheduleVersion != version) {
+      NetworkGraph g = computeGraph();
+      schedule = new NetworkSchedule(g, expectedTimes.clone());
+      scheduleVersion = version;
+      scheduleShared = false;
     }
-    return number;
-  }
 
+    return schedule;
+  }
 
   /**
-   * Compute the earliest time a node with the given ID can start.
+   * Build the dependency graph of this network, with node indices in the order of our node list, along with the column
+   * of expected times. The graph is only rebuilt if nodes or dependencies have changed since it was last built, so
+   * changes of times reuse it (and only update their entry in the column). A network backed by a store is given its
+   * graph when it is created.
    *
-   * @param nodeId ID of the node to compute the ES of.
-   * @return The earliest start time of the given node.
+   * @return The dependency graph of the current network.
    */
-  @SuppressWarnings("Duplicates")
-  public double computeEarliestStartTime(long nodeId) {
-    double number = 0;
-    for (ActivityNode aNodeList : nodeList) {
-      if (aNodeList.getNodeId() == nodeId) {
-        break;
-      } else {
-        number = number + aNodeList.getTimes()[3];
+  NetworkGraph computeGraph() {
+    if (graph == null || graphVersion != structureVersion) {
+      ArrayList<ActivityNode> nodes = sortedNodes();
+      graph = new NetworkGraph(nodes);
+      graphVersion = structureVersion;
+
+      expectedTimes = new double[nodes.size()];
+      for (int i = 0; i < expectedTimes.length; i++) {
+        expectedTimes[i] = nodes.get(i).getExpectedTime();
       }
     }
-    return number;
-  }
 
+    return graph;
+  }
 
   /**
-   * Compute the latest time a node with the given ID can start.
+   * Compute the earliest time the node with the given ID can finish.
    *
-   * @param nodeId ID of the node to compute the LS of.
-   * @return The latest start time of the given node.
+   * @param nodeId ID of the node to compute the EF of.
+   * @return The earliest finish time of the given node.
    */
-  @SuppressWarnings("Duplicates")
-  private double computeLatestStartTime(long nodeId) {
-    double number = computeEarliestFinishTime(nodeId);
-
-    for (int i = 0; i < nodeList.size(); i++) {
-      if (nodeList.get(i).getNodeId() == nodeId) {
-        number = number - nodeList.get(nodeList.size() - (i + 1)).getTimes()[3];
-        break;
-      } else {
-        number = number - nodeList.get(nodeList.size() - (i + 1)).getTimes()[3];
-      }
-
-    }
-    return number;
+  public double computeEarliestFinishTime(long nodeId) {
+    return currentSchedule().getEarliestFinishTime(nodeId);
   }
 
   /**
-   * Find all predecessors for the node matching the given node ID.
+   * Compute the latest time the node with the given ID can finish.
    *
-   * @param nodeId ID of the node to find predecessors for.
-   * @return All predecessors for the the given node.
+   * @param nodeId ID of the node to compute the LF of.
+   * @return The latest finish time of the given node.
    */
-  private ArrayList<ActivityNode> findPredecessors(long nodeId) {
-    int index = 0;
-    ArrayList<ActivityNode> nodesAfter = new ArrayList<>();
-
-    for (int i = 0; i < nodeList.size(); i++) {
-      if (nodeList.get(i).getNodeId() == nodeId) {
-        index = i;
-        break;
-      }
-    }
-
-    for (int i = index; i > 0; i--) {
-      nodesAfter.add(nodeList.get(i));
-    }
-
-    return nodesAfter;
+  public double computeLatestFinishTime(long nodeId) {
+    return currentSchedule().getLatestFinishTime(nodeId);
   }
 
   /**
-   * Find all successors for the node matching the given node ID.
+   * Compute the earliest time a node with the given ID can start.
    *
-   * @param nodeId ID of the node to find successors for.
-   * @return All successors for the given node.
+   * @param nodeId ID of the node to compute the ES of.
+   * @return The earliest start time of the given node.
    */
-  private ArrayList<ActivityNode> findSuccessors(long nodeId) {
-    int index = 0;
-    ArrayList<ActivityNode> nodesAfter = new ArrayList<>();
-
-    for (int i = 0; i < nodeList.size(); i++) {
-      if (nodeList.get(i).getNodeId() == nodeId) {
-        index = i;
-        break;
-      }
-    }
+  public double computeEarliestStartTime(long nodeId) {
+    return currentSchedule().getEarliestStartTime(nodeId);
+  }
 
-    for (int i = index; i < nodeList.size(); i++) {
-      nodesAfter.add(nodeList.get(i));
-    }
-    return nodesAfter;
+  /**
+   * Compute the latest time a node with the given ID can start.
+   *
+   * @param nodeId ID of the node to compute the LS of.
+   * @return The latest start time of the given node.
+   */
+  public double computeLatestStartTime(long nodeId) {
+    return currentSchedule().getLatestStartTime(nodeId);
   }
 
   /**
@@ -479,7 +1126,8 @@ public class ActivityNetwork {
     if (!isNodeInNetwork(nodeId)) {
       throw new java.lang.RuntimeException("Node does not exist in network.");
     } else {
-      return computeLatestFinishTime(nodeId) - computeEarliestFinishTime(nodeId);
+      NetworkSchedule s = currentSchedule();
+      return s.getSlackReport().getTotalSlack(s.indexOf(nodeId));
     }
   }
 
@@ -495,10 +1143,8 @@ public class ActivityNetwork {
     if (!isNodeInNetwork(nodeId)) {
       throw new java.lang.RuntimeException("Node does not exist in network.");
     } else {
-      List<Double> eta = findPredecessors(nodeId).stream().map(n_i ->
-          computeLatestFinishTime(n_i.getNodeId())).collect(Collectors.toList());
-
-      return computeLatestStartTime(nodeId) - eta.stream().reduce((double) 0, Double::max);
+      NetworkSchedule s = currentSchedule();
+      return s.getSlackReport().getSafetySlack(s.indexOf(nodeId));
     }
   }
 
@@ -514,91 +1160,30 @@ public class ActivityNetwork {
     if (!isNodeInNetwork(nodeId)) {
       throw new java.lang.RuntimeException("Node does not exist in network.");
     } else {
-      List<Double> eta = findSuccessors(nodeId).stream().map(n_i ->
-          computeEarliestStartTime(n_i.getNodeId())).collect(Collectors.toList());
-
-      return eta.stream().reduce((double) 0, Double::min) - computeEarliestFinishTime(nodeId);
+      NetworkSchedule s = currentSchedule();
+      return s.getSlackReport().getFreeSlack(s.indexOf(nodeId));
     }
   }
 
   /**
-   * Compute the critical path of the current network, and return a sorted array of node IDs that represent this path.
+   * Compute the total, free, safety, and independent slack of every node in the network at once. The report is cached
+   * along with our schedule, so the slack of single nodes (see computeTotalSlack) is read from it as well.
    *
-   * @return An array of node IDs that pertain to this network, which represent the current critical path.
+   * @return The slack of every node, in primitive arrays indexed by the order of our node list.
    */
-  public ArrayList<Long> computeCriticalPath() {
-    // Return an empty list if our network is empty.
-    if (nodeList.isEmpty()) {
-      return new ArrayList<>();
-    }
-
-    endDuration = 0;
-    ArrayList<Long> startList = new ArrayList<>();
-    ArrayList<ActivityNode> reverseList = new ArrayList<>();
-
-    for (int i = 1; i <= nodeList.size(); i++) {
-      reverseList.add(nodeList.get(nodeList.size() - i));
-    }
-    // Begin the recursion.
-    startList.clear();
-    startList.add(reverseList.get(0).getNodeId());
-    recursionCritPath(0, 0, startList, reverseList);
-
-    return critPathIds;
+  public SlackReport computeSlackReport() {
+    return currentSchedule().getSlackReport();
   }
 
   /**
-   * Recursively determine the critical path.
+   * Compute the critical path of the current network, and return a sorted array of node IDs that represent this path.
+   * The path is found by following the back-pointers recorded during the forward pass of our schedule.
    *
-   * @param index        Current index of dependency node followed.
-   * @param nodeDuration Total duration of all previous nodes visited.
-   * @param nodeIds      List of all dependencies visited
+   * @return An array of node IDs that pertain to this network, which represent the current critical path. The first
+   * node to start is first.
    */
-  private void recursionCritPath(int index, double nodeDuration, ArrayList<Long> nodeIds, ArrayList<ActivityNode> reverseList) {
-    int depIndex = 0; // Keep track of where the dependency node is located in nodeList.
-    ArrayList<Long> idList = new ArrayList<>(nodeIds); // First idList values = first node located in nodeList.
-    long id;
-
-    // Node has dependencies to follow.
-    if (reverseList.get(index).getDependencies().size() != 0) {
-      // Grab dependencies of node and convert it to arrayList.
-      Set<Long> depSet = reverseList.get(index).getDependencies();
-      ArrayList<Long> depList = new ArrayList<>(depSet);
-
-      // Grab dependency ID and locate the index of where dependency is located in nodeList.
-      for (Long aDepList : depList) {
-        id = aDepList;
-
-        for (int i = 0; i < reverseList.size(); i++) {
-          if (id == reverseList.get(i).getNodeId()) {
-            depIndex = i;
-          }
-        }
-
-        // Deposit dependency to list to keep track of unique path.
-        if (!idList.contains(retrieveNode(id).getNodeId())) {
-          idList.add(id);
-        }
-        double duration = reverseList.get(index).getTimes()[3];
-
-        // Track duration of unique path.
-        double total = duration + nodeDuration;
-        recursionCritPath(depIndex, total, idList, reverseList);
-
-        // Starts index back to the front of list on next iteration.
-        depIndex = 0;
-      }
-    } else {
-      // grab duration of last node.
-      double duration = reverseList.get(index).getTimes()[3];
-      // Total duration time of specific path.
-      double total = duration + nodeDuration;
-      if (total > endDuration) {
-        endDuration = total;
-        critPathIds.clear();
-        critPathIds.addAll(idList);
-      }
-    }
+  public ArrayList<Long> computeCriticalPath() {
+    return currentSchedule().getCriticalPath();
   }
 
   /**
@@ -607,7 +1192,10 @@ public class ActivityNetwork {
    * @return If the network is empty, return -1. Otherwise, the network's starting node ID.
    */
   long getStartNodeId() {
-    return nodeList.isEmpty() ? -1 : nodeList.get(0).getNodeId();
+    if (store != null) {
+      return (graph.size() == 0) ? -1 : graph.getNodeId(0);
+    }
+    return sortedNodes().isEmpty() ? -1 : nodeList.get(0).getNodeId();
   }
 
   /**
@@ -620,11 +1208,53 @@ public class ActivityNetwork {
   }
 
   /**
-   * Accessor method for the node list.
+   * Accessor method for the node list. The nodes can be changed through the returned list, so a twin that still shares
+   * its nodes (see twin) is given its own copy first.
    *
    * @return The list of nodes, in it's current order.
    */
   public ArrayList<ActivityNode> getNodeList() {
+    if (owner != null) {
+      detach();
+    }
+    return sortedNodes();
+  }
+
+  /**
+   * Accessor method for read-only views of our nodes. Unlike getNodeList, nothing is copied, even by a twin. A network
+   * backed by a store builds each node from its store as it is read instead.
+   *
+   * @return An unmodifiable view of the nodes, in their current order.
+   */
+  public List<ActivityNodeView> getNodes() {
+    if (store != null) {
+      NodeStore s = store;
+      NetworkGraph g = graph;
+      return new AbstractList<ActivityNodeView>() {
+        @Override
+        public ActivityNodeView get(int k) {
+          return s.retrieveNode(s.indexOf(g.getNodeId(k)));
+        }
+
+        @Override
+        public int size() {
+          return g.size();
+        }
+      };
+    }
+
+    return Collections.unmodifiableList(sortedNodes());
+  }
+
+  /**
+   * Accessor method for our node list, without empty positions. Unlike getNodeList, a twin is not given its own copy,
+   * so the nodes **MUST NOT** be changed through this list unless beforeChange was called.
+   *
+   * @return The list of nodes, in it's current order.
+   */
+  ArrayList<ActivityNode> sortedNodes() {
+    unpack();
+    compactNodeList();
     return nodeList;
   }
 
@@ -637,6 +1267,15 @@ public class ActivityNetwork {
     return networkName;
   }
 
+  /**
+   * Accessor method for the network version, the number of changes made to the nodes of this network.
+   *
+   * @return The network version.
+   */
+  public long getVersion() {
+    return version;
+  }
+
   /**
    * Accessor method fo the network deadline.
    *
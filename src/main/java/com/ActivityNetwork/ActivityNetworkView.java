@@ -0,0 +1,140 @@
+package com.ActivityNetwork;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ActivityNetworkView interface, a read-only view of an activity network. Views are meant for code that only
+ * displays a network (lists, tables, reports), and are handed out without copying any node. Changes are made through
+ * an edit session instead: NetworkController.retrieveNetwork returns a network to change, and modifyNetwork records
+ * the changed network as a new version.
+ */
+public interface ActivityNetworkView {
+  /**
+   * Accessor method for the network ID.
+   *
+   * @return The network ID.
+   */
+  long getNetworkId();
+
+  /**
+   * Accessor method for the network name.
+   *
+   * @return The name assigned to this network.
+   */
+  String getNetworkName();
+
+  /**
+   * Accessor method fo the network deadline.
+   *
+   * @return The network deadline.
+   */
+  double getHoursDeadline();
+
+  /**
+   * Accessor method for the network version, the number of changes made to the nodes of this network.
+   *
+   * @return The network version.
+   */
+  long getVersion();
+
+  /**
+   * Accessor method for the nodes, without copying them.
+   *
+   * @return An unmodifiable view of the nodes, in their current order (every node comes after its dependencies).
+   */
+  List<ActivityNodeView> getNodes();
+
+  /**
+   * Return a view of the node with the given ID, without copying it.
+   *
+   * @param nodeId ID of the node to view.
+   * @return A view of the node. Null if the node does not exist.
+   */
+  ActivityNodeView viewNode(long nodeId);
+
+  /**
+   * Check if a given node is in the network using the node's name.
+   *
+   * @param nodeName Name of the node to determine existence of.
+   * @return True if the node exists in the network. False otherwise.
+   */
+  boolean isNodeInNetwork(String nodeName);
+
+  /**
+   * Get the node ID associated with the node of the given name.
+   *
+   * @param nodeName Name of the node to search for.
+   * @return -1 if a node does not exist with that name. Otherwise, the node ID of the node with the given name.
+   */
+  long nodeIdFromName(String nodeName);
+
+  /**
+   * Get the node name associated with the node of the given ID.
+   *
+   * @param nodeID ID of the node to search for.
+   * @return Empty string if a node does not exist with that ID. Otherwise, the name of the node with the given ID.
+   */
+  String nodeNameFromId(long nodeID);
+
+  /**
+   * Check if the node with the first ID must finish before the node with the second ID can start.
+   *
+   * @param upstreamId   ID of the node that may be depended on.
+   * @param downstreamId ID of the node that may depend on the other node.
+   * @return True if both nodes exist and the second node depends on the first one. False otherwise.
+   */
+  boolean isUpstream(long upstreamId, long downstreamId);
+
+  /**
+   * Compute the earliest and latest start and finish times of every node in the network.
+   *
+   * @return The schedule of the network.
+   */
+  NetworkSchedule computeSchedule();
+
+  /**
+   * Compute the sum of the critical path times. This represents the minimum time a project requires to completion.
+   *
+   * @return The sum of the critical path times in hours.
+   */
+  double computeCriticalPathTime();
+
+  /**
+   * Compute the critical path of the network.
+   *
+   * @return The node IDs of the critical path. The first node to start is first.
+   */
+  ArrayList<Long> computeCriticalPath();
+
+  /**
+   * Compute the total, free, safety, and independent slack of every node in the network at once.
+   *
+   * @return The slack of every node.
+   */
+  SlackReport computeSlackReport();
+
+  /**
+   * Compute the total slack of the node with the given ID, which **MUST** exist.
+   *
+   * @param nodeId ID of the node to compute the total slack for.
+   * @return The total slack of the node with the given ID.
+   */
+  double computeTotalSlack(long nodeId);
+
+  /**
+   * Compute the safety slack of the node with the given ID, which **MUST** exist.
+   *
+   * @param nodeId ID of the node to compute the safety slack for.
+   * @return The safety slack of the node with the given ID.
+   */
+  double computeSafetySlack(long nodeId);
+
+  /**
+   * Compute the free slack of the node with the given ID, which **MUST** exist.
+   *
+   * @param nodeId ID of the node to compute the free slack for.
+   * @return The free slack of the node with the given ID.
+   */
+  double computeFreeSlack(long nodeId);
+}
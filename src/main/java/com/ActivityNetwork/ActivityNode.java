@@ -1,12 +1,12 @@
 package com.ActivityNetwork;
 
+import java.util.Collections;
 import java.util.Set;
-import java.util.HashSet;
 
 /**
  * The ActivityNode class, which represents an activity node in the Critical Path Method.
  */
-public class ActivityNode {
+public class ActivityNode implements ActivityNodeView {
   /** Unique identifier for this specific node. */
   private long nodeId;
 
@@ -29,7 +29,13 @@ public class ActivityNode {
   private double expectedTime;
 
   /** Set of nodeIds associated that this activity depends on. */
-  private Set<Long> dependencies;
+  private DependencySet dependencies;
+
+  /** Network this node belongs to. Null if this node has not been inserted into a network. */
+  private ActivityNetwork network;
+
+  /** Position of this node in its network's topological order. Only meaningful if this node belongs to a network. */
+  private int position;
 
   /**
    * Computes the expected time using the current normal, optimistic, and pessimistic times. Using the formula defined
@@ -41,6 +47,25 @@ public class ActivityNode {
     return (optimisticTime + 4 * normalTime + pessimisticTime) / 6.0;
   }
 
+  /**
+   * Let our network (if we belong to one) know that we are about to change, so that twins sharing this node get their
+   * own copy first (see ActivityNetwork.twin).
+   */
+  private void beforeChange() {
+    if (network != null) {
+      network.beforeChange();
+    }
+  }
+
+  /**
+   * Notify our network (if we belong to one) that our times have changed, so that its schedule is updated.
+   */
+  private void timesChanged() {
+    if (network != null) {
+      network.nodeTimesChanged(this);
+    }
+  }
+
   /**
    * Constructor without dependencies given. Sets the nodeId, name, description, and all times. Computes and sets the
    * normal time as well.
@@ -61,16 +86,17 @@ public class ActivityNode {
     this.optimisticTime = optimisticTime;
     this.pessimisticTime = pessimisticTime;
     this.expectedTime = computeExpectedTime();
-    this.dependencies = new HashSet<>();
+    this.dependencies = new DependencySet();
+    this.network = null;
   }
 
   /**
-   * Cloning method, using for creating a new instance of the current node.
+   * Cloning method, using for creating a new instance of the current node. The clone does not belong to any network.
    */
   ActivityNode twin() {
     ActivityNode n = new ActivityNode(this.getNodeId(), this.getName(), this.getDescription(),
-        this.getTimes()[0], this.getTimes()[1], this.getTimes()[2]);
-    n.setDependencies(this.dependencies);
+        this.optimisticTime, this.normalTime, this.pessimisticTime);
+    n.dependencies = new DependencySet(this.dependencies);
 
     return n;
   }
@@ -103,20 +129,79 @@ public class ActivityNode {
   }
 
   /**
-   * Accessor method for the node's dependencies.
+   * Accessor method for the node's dependencies. Only the network itself should modify the returned set.
    *
    * @return The node's dependencies.
    */
-  Set<Long> getDependencies() {
+  DependencySet getDependencies() {
     return dependencies;
   }
 
   /**
-   * Mutator method for the node's name.
+   * Accessor method for the node's dependencies, without copying them.
+   *
+   * @return An unmodifiable view of the node's dependencies.
+   */
+  public Set<Long> getDependencyIds() {
+    return Collections.unmodifiableSet(dependencies);
+  }
+
+  /**
+   * Estimate the number of bytes this node retains: the node itself, its name and description, and its dependencies.
+   *
+   * @return The estimated size of this node in bytes.
+   */
+  long estimateBytes() {
+    return 160 + 2L * (name.length() + description.length()) + 8L * dependencies.size();
+  }
+
+  /**
+   * Accessor method for the network this node belongs to.
+   *
+   * @return The network this node was inserted into. Null if the node does not belong to a network.
+   */
+  ActivityNetwork getNetwork() {
+    return network;
+  }
+
+  /**
+   * Mutator method for the network this node belongs to. Only the network itself should call this.
+   *
+   * @param network The network this node was inserted into, or null if the node was removed from its network.
+   */
+  void setNetwork(ActivityNetwork network) {
+    this.network = network;
+  }
+
+  /**
+   * Accessor method for the node's position in its network's order.
+   *
+   * @return The position of this node in the node list of its network.
+   */
+  int getPosition() {
+    return position;
+  }
+
+  /**
+   * Mutator method for the node's position in its network's order. Only the network itself should call this.
+   *
+   * @param position The new position of this node in the node list of its network.
+   */
+  void setPosition(int position) {
+    this.position = position;
+  }
+
+  /**
+   * Mutator method for the node's name. If this node belongs to a network, the network's name index is updated, and
+   * the name **MUST** be unique in that network.
    *
    * @param name The new name for the node.
    */
   public void setName(String name) {
+    if (network != null && !network.reindexNodeName(this, name)) {
+      throw new java.lang.RuntimeException("Node name already exists in network.");
+    }
+
     this.name = name;
   }
 
@@ -126,11 +211,13 @@ public class ActivityNode {
    * @param description The new description for the node.
    */
   public void setDescription(String description) {
+    beforeChange();
     this.description = description;
   }
 
   /**
-   * Return all times associated with the node in order of: optimistic, normal, pessimistic, expected.
+   * Return all times associated with the node in order of: optimistic, normal, pessimistic, expected. This allocates a
+   * new array on every call, so loops should use the accessors for each time instead.
    *
    * @return All times associated with the node.
    */
@@ -139,38 +226,101 @@ public class ActivityNode {
   }
 
   /**
-   * Mutator method for the node's normal time to competition. Re-computes the expected time.
+   * Accessor method for the node's optimistic time to completion.
+   *
+   * @return The node's optimistic time in hours.
+   */
+  public double getOptimisticTime() {
+    return optimisticTime;
+  }
+
+  /**
+   * Accessor method for the node's normal time to completion.
+   *
+   * @return The node's normal time in hours.
+   */
+  public double getNormalTime() {
+    return normalTime;
+  }
+
+  /**
+   * Accessor method for the node's pessimistic time to completion.
+   *
+   * @return The node's pessimistic time in hours.
+   */
+  public double getPessimisticTime() {
+    return pessimisticTime;
+  }
+
+  /**
+   * Accessor method for the node's expected time to completion, computed from the other three times.
+   *
+   * @return The node's expected time in hours.
+   */
+  public double getExpectedTime() {
+    return expectedTime;
+  }
+
+  /**
+   * Mutator method for the node's normal time to competition. Re-computes the expected time, and updates the
+   * schedule of the network this node belongs to.
    *
    * @param normalTime The new normal time for the node.
    */
   public void setNormalTime(double normalTime) {
+    beforeChange();
     this.normalTime = normalTime;
     this.expectedTime = computeExpectedTime();
+    timesChanged();
   }
 
   /**
-   * Mutator method for the node's optimistic time to competition. Re-computes the expected time.
+   * Mutator method for the node's optimistic time to competition. Re-computes the expected time, and updates the
+   * schedule of the network this node belongs to.
    *
    * @param optimisticTime The new optimistic time for the node.
    */
   public void setOptimisticTime(double optimisticTime) {
+    beforeChange();
     this.optimisticTime = optimisticTime;
     this.expectedTime = computeExpectedTime();
+    timesChanged();
   }
 
   /**
-   * Mutator method for the node's pessimistic time to competition. Re-computes the expected time.
+   * Mutator method for the node's pessimistic time to competition. Re-computes the expected time, and updates the
+   * schedule of the network this node belongs to.
    *
    * @param pessimisticTime The new pessimistic time for the node.
    */
   public void setPessimisticTime(double pessimisticTime) {
+    beforeChange();
+    this.pessimisticTime = pessimisticTime;
+    this.expectedTime = computeExpectedTime();
+    timesChanged();
+  }
+
+  /**
+   * Mutator method for all of the node's times to completion at once. Re-computes the expected time, and updates the
+   * schedule of the network this node belongs to only once.
+   *
+   * @param optimisticTime  The new optimistic time for the node.
+   * @param normalTime      The new normal time for the node.
+   * @param pessimisticTime The new pessimistic time for the node.
+   */
+  public void setTimes(double optimisticTime, double normalTime, double pessimisticTime) {
+    beforeChange();
+    this.optimisticTime = optimisticTime;
+    this.normalTime = normalTime;
     this.pessimisticTime = pessimisticTime;
     this.expectedTime = computeExpectedTime();
+    timesChanged();
   }
 
   /**
    * Mutator method for the node's dependencies. For all dependencies d, d != nodeId. Breaking this condition indicates
-   * an activity depending on itself.
+   * an activity depending on itself. If this node belongs to a network, the network checks the dependencies as well
+   * (see ActivityNetwork.setDependencies). The given set is copied.
    *
    * @param dependencies The new node's dependencies.
    * @return True if the dependencies were set. False otherwise.
@@ -182,8 +332,20 @@ public class ActivityNode {
       }
     }
 
-    this.dependencies = dependencies;
+    if (network != null) {
+      return network.setDependencies(nodeId, dependencies);
+    }
+    this.dependencies = new DependencySet(dependencies);
     return true;
   }
 
+  /**
+   * Mutator method for the node's dependencies, without any checks. Only the network itself should call this.
+   *
+   * @param dependencies The new node's dependencies.
+   */
+  void replaceDependencies(DependencySet dependencies) {
+    this.dependencies = dependencies;
+  }
+
 }
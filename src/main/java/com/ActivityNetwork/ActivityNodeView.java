@@ -0,0 +1,65 @@
+package com.ActivityNetwork;
+
+import java.util.Set;
+
+/**
+ * The ActivityNodeView interface, a read-only view of an activity node. Nodes handed out as views are not copied, so
+ * they **MUST NOT** be cast back to ActivityNode and changed. Use ActivityNetwork.retrieveNode for a node to edit.
+ */
+public interface ActivityNodeView {
+  /**
+   * Accessor method for node's ID.
+   *
+   * @return The node's nodeId.
+   */
+  long getNodeId();
+
+  /**
+   * Accessor method for node's name.
+   *
+   * @return The node's name.
+   */
+  String getName();
+
+  /**
+   * Accessor method for the node's description.
+   *
+   * @return The node's description.
+   */
+  String getDescription();
+
+  /**
+   * Accessor method for the node's optimistic time to completion.
+   *
+   * @return The node's optimistic time in hours.
+   */
+  double getOptimisticTime();
+
+  /**
+   * Accessor method for the node's normal time to completion.
+   *
+   * @return The node's normal time in hours.
+   */
+  double getNormalTime();
+
+  /**
+   * Accessor method for the node's pessimistic time to completion.
+   *
+   * @return The node's pessimistic time in hours.
+   */
+  double getPessimisticTime();
+
+  /**
+   * Accessor method for the node's expected time to completion, computed from the other three times.
+   *
+   * @return The node's expected time in hours.
+   */
+  double getExpectedTime();
+
+  /**
+   * Accessor method for the node's dependencies.
+   *
+   * @return An unmodifiable view of the IDs of the nodes this node depends on.
+   */
+  Set<Long> getDependencyIds();
+}
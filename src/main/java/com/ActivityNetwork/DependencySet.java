@@ -0,0 +1,195 @@
+package com.ActivityNetwork;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The DependencySet class, which holds the node IDs an activity depends on. IDs are kept in a sorted long array, so
+ * add, remove, and contains never box, and a set costs 8 bytes per ID. The set can also be used as a Set of Long
+ * objects, for code that expects one (IDs are only boxed while iterating).
+ */
+final class DependencySet extends AbstractSet<Long> {
+  /** IDs in this set, in increasing order. Only the first size entries are used. */
+  private long[] ids;
+
+  /** Number of IDs in this set. */
+  private int size;
+
+  /**
+   * Find the position of the given ID in our array.
+   *
+   * @param id ID to search for.
+   * @return The position of the ID if it is in this set. Otherwise, (-(insertion point) - 1).
+   */
+  private int find(long id) {
+    return Arrays.binarySearch(ids, 0, size, id);
+  }
+
+  /**
+   * Constructor. Creates an empty set.
+   */
+  DependencySet() {
+    this.ids = new long[0];
+    this.size = 0;
+  }
+
+  /**
+   * Constructor. Creates a set holding all of the given IDs.
+   *
+   * @param ids IDs to add to this set.
+   */
+  DependencySet(Collection<Long> ids) {
+    if (ids instanceof DependencySet) {
+      DependencySet s = (DependencySet) ids;
+      this.ids = Arrays.copyOf(s.ids, s.size);
+      this.size = s.size;
+      return;
+    }
+
+    // Sort all IDs at once, then drop the duplicates.
+    long[] sorted = ids.stream().mapToLong(Long::longValue).sorted().toArray();
+    int n = 0;
+    for (int i = 0; i < sorted.length; i++) {
+      if (n == 0 || sorted[i] != sorted[n - 1]) {
+        sorted[n++] = sorted[i];
+      }
+    }
+    this.ids = sorted;
+    this.size = n;
+  }
+
+  /**
+   * Check if the given ID is in this set.
+   *
+   * @param id ID to check.
+   * @return True if this set holds the ID. False otherwise.
+   */
+  boolean contains(long id) {
+    return find(id) >= 0;
+  }
+
+  /**
+   * Add the given ID to this set.
+   *
+   * @param id ID to add.
+   * @return True if the ID was added. False if this set already holds the ID.
+   */
+  boolean add(long id) {
+    int p = find(id);
+    if (p >= 0) {
+      return false;
+    }
+
+    p = -p - 1;
+    if (size == ids.length) {
+      ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+    }
+    System.arraycopy(ids, p, ids, p + 1, size - p);
+    ids[p] = id;
+    size++;
+    return true;
+  }
+
+  /**
+   * Remove the given ID from this set.
+   *
+   * @param id ID to remove.
+   * @return True if the ID was removed. False if this set does not hold the ID.
+   */
+  boolean remove(long id) {
+    int p = find(id);
+    if (p < 0) {
+      return false;
+    }
+
+    System.arraycopy(ids, p + 1, ids, p, size - p - 1);
+    size--;
+    return true;
+  }
+
+  /**
+   * Accessor method for the ID at the given position. IDs are in increasing order.
+   *
+   * @param i Position of the ID, between 0 and size() - 1.
+   * @return The ID at the given position.
+   */
+  long get(int i) {
+    return ids[i];
+  }
+
+  /**
+   * Join the IDs in this set with the given separator.
+   *
+   * @param separator String to put between two IDs.
+   * @return The IDs in this set, in increasing order, separated by the given separator.
+   */
+  String join(String separator) {
+    StringBuilder s = new StringBuilder();
+    for (int i = 0; i < size; i++) {
+      s.append((i == 0) ? "" : separator).append(ids[i]);
+    }
+    return s.toString();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return (o instanceof Long) && contains((long) (Long) o);
+  }
+
+  @Override
+  public boolean add(Long id) {
+    return add((long) id);
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    return (o instanceof Long) && remove((long) (Long) o);
+  }
+
+  @Override
+  public void clear() {
+    size = 0;
+  }
+
+  @Override
+  public Iterator<Long> iterator() {
+    return new Iterator<Long>() {
+      /** Position of the next ID to return. */
+      private int next = 0;
+
+      /** Whether the last returned ID may be removed. */
+      private boolean removable = false;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public Long next() {
+        if (next >= size) {
+          throw new NoSuchElementException();
+        }
+        removable = true;
+        return ids[next++];
+      }
+
+      @Override
+      public void remove() {
+        if (!removable) {
+          throw new IllegalStateException();
+        }
+        DependencySet.this.remove(ids[--next]);
+        removable = false;
+      }
+    };
+  }
+}
@@ -0,0 +1,183 @@
+package com.ActivityNetwork;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * The HistorySpill class, an append-only file of network deltas, which keeps the older versions of network histories
+ * out of the heap (see NetworkHistory). The file is memory-mapped in segments, so a delta is read back by decoding it
+ * straight from its segment. Deltas are never removed from the file, but the spill counts the bytes of the deltas that
+ * are still used: once most of the file is free, the deltas still used are copied to a new spill, and the old one is
+ * closed (see NetworkController). The file is deleted when the spill is closed or when the program exits, and is only
+ * created once the first delta is written.
+ */
+final class HistorySpill {
+  /** Size of each mapped segment in bytes. Larger deltas get a segment of their own. */
+  static final int SEGMENT_BYTES = 1 << 24;
+
+  /** Size of each mapped segment of this spill in bytes. */
+  private final int segmentBytes;
+
+  /** The spill file. Null until the first delta is written. */
+  private Path path;
+
+  /** Channel of the spill file. Null until the first delta is written. */
+  private FileChannel channel;
+
+  /** Mapped segments of the spill file, in file order. */
+  private final ArrayList<MappedByteBuffer> segments;
+
+  /** Position in the file after the last mapped segment. */
+  private long fileEnd;
+
+  /** Number of bytes taken by the deltas that were written and not freed since. */
+  private long liveBytes;
+
+  /** True if the spill file could not be created or grown. No more deltas are written then. */
+  private boolean failed;
+
+  /**
+   * Constructor. Creates a spill with segments of the given size.
+   *
+   * @param segmentBytes Size of each mapped segment in bytes.
+   */
+  HistorySpill(int segmentBytes) {
+    this.segmentBytes = segmentBytes;
+    this.segments = new ArrayList<>();
+    this.fileEnd = 0;
+    this.liveBytes = 0;
+    this.failed = false;
+  }
+
+  /**
+   * Constructor. Creates a spill with segments of SEGMENT_BYTES bytes.
+   */
+  HistorySpill() {
+    this(SEGMENT_BYTES);
+  }
+
+  /**
+   * Map a new segment at the end of the spill file, creating the file first if needed.
+   *
+   * @param needed Number of bytes the segment must be able to hold.
+   * @throws IOException If the file cannot be created or mapped.
+   */
+  private void mapSegment(int needed) throws IOException {
+    if (channel == null) {
+      path = Files.createTempFile("network-history", ".bin");
+      path.toFile().deleteOnExit();
+      channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    int size = Math.max(segmentBytes, needed);
+    segments.add(channel.map(FileChannel.MapMode.READ_WRITE, fileEnd, size));
+    fileEnd += size;
+  }
+
+  /**
+   * Append the given delta to the spill file.
+   *
+   * @param delta Delta to write.
+   * @return The position of the delta, to read it back. -1 if the delta could not be written, in which case it
+   * **MUST** be kept in memory.
+   */
+  long write(NetworkDelta delta) {
+    if (failed) {
+      return -1;
+    }
+
+    byte[] b = delta.toBytes();
+    try {
+      // A delta is never split over two segments.
+      if (segments.isEmpty() || segments.get(segments.size() - 1).remaining() < 4 + b.length) {
+        mapSegment(4 + b.length);
+      }
+    } catch (IOException | RuntimeException e) {
+      failed = true;
+      return -1;
+    }
+
+    MappedByteBuffer segment = segments.get(segments.size() - 1);
+    long position = ((long) (segments.size() - 1) << 32) | segment.position();
+    segment.putInt(b.length);
+    segment.put(b);
+    liveBytes += 4 + b.length;
+    return position;
+  }
+
+  /**
+   * Read back the delta written at the given position.
+   *
+   * @param position Position of the delta, as returned by write.
+   * @return The delta.
+   */
+  NetworkDelta read(long position) {
+    ByteBuffer b = segments.get((int) (position >>> 32)).duplicate();
+    b.position((int) position + 4);
+    return NetworkDelta.fromBytes(b);
+  }
+
+  /**
+   * Free the delta written at the given position, once no version uses it anymore. Its bytes stay in the file until the
+   * spill is rewritten.
+   *
+   * @param position Position of the delta, as returned by write. Each position **MUST** be freed at most once.
+   */
+  void free(long position) {
+    if (!segments.isEmpty()) {
+      liveBytes -= 4 + segments.get((int) (position >>> 32)).getInt((int) position);
+    }
+  }
+
+  /**
+   * Check if the spill file is mostly free, so that it should be rewritten: either none of its deltas are used anymore,
+   * or the bytes that are free outweigh the bytes that are used by more than a segment.
+   *
+   * @return True if the spill file should be rewritten. False otherwise, or if there is no file.
+   */
+  boolean isMostlyFree() {
+    return fileEnd > 0 && (liveBytes == 0 || fileEnd - liveBytes > liveBytes + segmentBytes);
+  }
+
+  /**
+   * Accessor method for the number of bytes written to the spill file, including the unused end of each segment.
+   *
+   * @return The size of the spill file in bytes. 0 once the spill is closed.
+   */
+  long getFileBytes() {
+    return fileEnd;
+  }
+
+  /**
+   * Accessor method for the number of bytes taken by the deltas that are still used.
+   *
+   * @return The number of bytes written and not freed since.
+   */
+  long getLiveBytes() {
+    return liveBytes;
+  }
+
+  /**
+   * Close and delete the spill file. Deltas can no longer be read or written afterwards.
+   */
+  void close() {
+    segments.clear();
+    fileEnd = 0;
+    liveBytes = 0;
+    failed = true;
+    try {
+      if (channel != null) {
+        channel.close();
+        Files.deleteIfExists(path);
+      }
+    } catch (IOException e) {
+      // The file is deleted when the program exits instead.
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package com.ActivityNetwork;
+
+import java.util.Arrays;
+
+/**
+ * The IntHeap class, a binary heap of primitive ints used as the work queue of our graph traversals. Values are never
+ * boxed, and the backing array is allocated once up front (it only grows if the given capacity is exceeded).
+ */
+final class IntHeap {
+  /** Values in this heap, in heap order. Only the first size entries are used. */
+  private int[] values;
+
+  /** Number of values in this heap. */
+  private int size;
+
+  /** True if the largest value is taken first. False if the smallest value is taken first. */
+  private final boolean largestFirst;
+
+  /**
+   * Check if the value at position a should be taken before the value at position b.
+   *
+   * @param a Position of the first value.
+   * @param b Position of the second value.
+   * @return True if the first value comes before the second one.
+   */
+  private boolean before(int a, int b) {
+    return largestFirst ? values[a] > values[b] : values[a] < values[b];
+  }
+
+  /**
+   * Swap the values at the given positions.
+   *
+   * @param a Position of the first value.
+   * @param b Position of the second value.
+   */
+  private void swap(int a, int b) {
+    int v = values[a];
+    values[a] = values[b];
+    values[b] = v;
+  }
+
+  /**
+   * Constructor. Creates an empty heap.
+   *
+   * @param capacity     Number of values the heap can hold before it has to grow.
+   * @param largestFirst True to take the largest value first. False to take the smallest value first.
+   */
+  IntHeap(int capacity, boolean largestFirst) {
+    this.values = new int[Math.max(1, capacity)];
+    this.size = 0;
+    this.largestFirst = largestFirst;
+  }
+
+  /**
+   * Add the given value to this heap.
+   *
+   * @param value Value to add.
+   */
+  void add(int value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+    }
+
+    int p = size++;
+    values[p] = value;
+    while (p > 0 && before(p, (p - 1) / 2)) {
+      swap(p, (p - 1) / 2);
+      p = (p - 1) / 2;
+    }
+  }
+
+  /**
+   * Remove and return the first value of this heap (the smallest or the largest, see the constructor). The user here
+   * **MUST** check that the heap is not empty before using this.
+   *
+   * @return The first value of this heap.
+   */
+  int poll() {
+    int first = values[0];
+    values[0] = values[--size];
+
+    for (int p = 0; 2 * p + 1 < size; ) {
+      int c = (2 * p + 2 < size && before(2 * p + 2, 2 * p + 1)) ? 2 * p + 2 : 2 * p + 1;
+      if (!before(c, p)) {
+        break;
+      }
+      swap(p, c);
+      p = c;
+    }
+    return first;
+  }
+
+  /**
+   * Check if this heap holds no values.
+   *
+   * @return True if the heap is empty. False otherwise.
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+}
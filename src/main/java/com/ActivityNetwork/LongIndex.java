@@ -0,0 +1,109 @@
+package com.ActivityNetwork;
+
+import java.util.Arrays;
+
+/**
+ * The LongIndex class, a map of long keys (node IDs) to int values (node indices). Keys and values are kept in two
+ * primitive arrays using open addressing with linear probing, so an entry costs 12 bytes (at 75% load) instead of a
+ * boxed Long, a boxed Integer and a hash map entry. Entries can only be added, which is all a NetworkGraph needs. The
+ * arrays are doubled once they are three quarters full.
+ */
+final class LongIndex {
+  /** Value that marks an empty slot, and that is returned for keys that are not in the index. */
+  static final int ABSENT = -1;
+
+  /** Keys of each slot. Only meaningful if the value of the slot is not ABSENT. */
+  private long[] keys;
+
+  /** Values of each slot. ABSENT for empty slots. */
+  private int[] values;
+
+  /** Mask to turn a hash into a slot (the number of slots is a power of two). */
+  private int mask;
+
+  /** Number of keys in this index. */
+  private int size;
+
+  /**
+   * Find the first slot to probe for the given key. The key is mixed first, so that sequential IDs spread out.
+   *
+   * @param key Key to find the slot of.
+   * @return The first slot to probe.
+   */
+  private int slot(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  /**
+   * Allocate empty arrays with the given number of slots.
+   *
+   * @param slots Number of slots, a power of two.
+   */
+  private void allocate(int slots) {
+    keys = new long[slots];
+    values = new int[slots];
+    mask = slots - 1;
+    Arrays.fill(values, ABSENT);
+  }
+
+  /**
+   * Constructor. Creates an empty index that can hold the given number of keys before it has to grow.
+   *
+   * @param capacity Number of keys this index can hold before it has to grow.
+   */
+  LongIndex(int capacity) {
+    allocate(Integer.highestOneBit(Math.max(2, capacity + capacity / 3) * 2 - 1));
+    this.size = 0;
+  }
+
+  /**
+   * Map the given key to the given value, replacing its previous value if there is one.
+   *
+   * @param key   Key to add.
+   * @param value Value to map the key to (not ABSENT).
+   */
+  void put(long key, int value) {
+    int s = slot(key);
+    while (values[s] != ABSENT && keys[s] != key) {
+      s = (s + 1) & mask;
+    }
+    if (values[s] != ABSENT) {
+      values[s] = value;
+      return;
+    }
+
+    keys[s] = key;
+    values[s] = value;
+    if (++size > (mask + 1) / 4 * 3) {
+      long[] oldKeys = keys;
+      int[] oldValues = values;
+      allocate((mask + 1) * 2);
+      for (int k = 0; k < oldValues.length; k++) {
+        if (oldValues[k] != ABSENT) {
+          int t = slot(oldKeys[k]);
+          while (values[t] != ABSENT) {
+            t = (t + 1) & mask;
+          }
+          keys[t] = oldKeys[k];
+          values[t] = oldValues[k];
+        }
+      }
+    }
+  }
+
+  /**
+   * Find the value of the given key.
+   *
+   * @param key Key to search for.
+   * @return The value of the key. ABSENT if the key is not in this index.
+   */
+  int get(long key) {
+    for (int s = slot(key); values[s] != ABSENT; s = (s + 1) & mask) {
+      if (keys[s] == key) {
+        return values[s];
+      }
+    }
+    return ABSENT;
+  }
+}
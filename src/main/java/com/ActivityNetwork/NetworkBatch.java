@@ -0,0 +1,115 @@
+package com.ActivityNetwork;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * The NetworkBatch class, which collects node insertions, node deletions and dependency changes to apply to an
+ * ActivityNetwork all at once (see ActivityNetwork.applyBatch). The network is only reordered once per batch, instead
+ * of once per change.
+ */
+public class NetworkBatch {
+  /** Kinds of changes a batch can hold. */
+  enum Kind {
+    INSERT, DELETE, SET_DEPENDENCIES
+  }
+
+  /**
+   * A single change in the batch.
+   */
+  static final class Change {
+    /** Kind of this change. */
+    final Kind kind;
+
+    /** Node to insert. Only used for insertions. */
+    final ActivityNode node;
+
+    /** ID of the node to delete or to set the dependencies of. */
+    final long nodeId;
+
+    /** The node's new dependencies. Only used for dependency changes. */
+    final DependencySet dependencies;
+
+    /**
+     * Constructor. Records a change of the given kind.
+     *
+     * @param kind         Kind of this change.
+     * @param node         Node to insert, or null.
+     * @param nodeId       ID of the node to change.
+     * @param dependencies The node's new dependencies, or null.
+     */
+    Change(Kind kind, ActivityNode node, long nodeId, DependencySet dependencies) {
+      this.kind = kind;
+      this.node = node;
+      this.nodeId = nodeId;
+      this.dependencies = dependencies;
+    }
+  }
+
+  /** Changes in this batch, in the order they were added. */
+  private ArrayList<Change> changes;
+
+  /**
+   * Constructor. Starts an empty batch.
+   */
+  public NetworkBatch() {
+    this.changes = new ArrayList<>();
+  }
+
+  /**
+   * Add a node insertion to this batch. The same checks as ActivityNetwork.insertNode apply.
+   *
+   * @param node Node to insert into the network.
+   */
+  public void insertNode(ActivityNode node) {
+    changes.add(new Change(Kind.INSERT, node, node.getNodeId(), null));
+  }
+
+  /**
+   * Add an insertion of each of the given nodes to this batch, in order.
+   *
+   * @param nodes Nodes to insert into the network.
+   */
+  public void insertNodes(Collection<ActivityNode> nodes) {
+    nodes.forEach(this::insertNode);
+  }
+
+  /**
+   * Add a node deletion to this batch. The same checks as ActivityNetwork.deleteNode apply.
+   *
+   * @param nodeId ID of the node to delete.
+   */
+  public void deleteNode(long nodeId) {
+    changes.add(new Change(Kind.DELETE, null, nodeId, null));
+  }
+
+  /**
+   * Add a dependency change to this batch. The same checks as ActivityNetwork.setDependencies apply. The given set is
+   * copied.
+   *
+   * @param nodeId       ID of the node to set the dependencies of.
+   * @param dependencies The node's new dependencies.
+   */
+  public void setDependencies(long nodeId, Set<Long> dependencies) {
+    changes.add(new Change(Kind.SET_DEPENDENCIES, null, nodeId, new DependencySet(dependencies)));
+  }
+
+  /**
+   * Accessor method for the changes in this batch.
+   *
+   * @return The changes in this batch, in the order they were added.
+   */
+  ArrayList<Change> getChanges() {
+    return changes;
+  }
+
+  /**
+   * Accessor method for the number of changes in this batch.
+   *
+   * @return The number of changes in this batch.
+   */
+  public int size() {
+    return changes.size();
+  }
+}
@@ -2,28 +2,55 @@ package com.ActivityNetwork;
 
 import com.BaseInterface.UserAccount;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 
 /**
  * The NetworkController class, which controls and manages various ActivityNetwork instances.
  */
 public class NetworkController {
-  /** Chain of network instances. This holds the history of every project that has been open. */
-  private ArrayList<ActivityNetwork> networkChain;
+  /** History of every project that has been open, indexed by network ID. Each holds its own versions for "redo". */
+  private HashMap<Long, NetworkHistory> histories;
 
-  /** Chain of removed network instances. Used for the "redo" method. */
-  private ArrayList<ActivityNetwork> removedNetworkChain;
+  /**
+   * File that the older versions of every history are written to, to keep them out of the heap. Rewritten once most of
+   * it holds versions that were dropped, undone or deleted since (see reclaimSpill).
+   */
+  private HistorySpill spill;
 
-  /** Chain of timestamps, whose order corresponds with the network chain. */
-  private ArrayList<Long> timestampChain;
+  /**
+   * Versions of every network, in the order they were recorded. Used to drop the oldest version of all networks once
+   * we reach our limit. Versions that were undone or dropped since are skipped (and removed in bulk once they make up
+   * most of this queue).
+   */
+  private ArrayDeque<NetworkHistory.Version> recordOrder;
 
-  /** Chain of removed timestamps, whose order corresponds with the removed network chain. */
-  private ArrayList<Long> removedTimestampChain;
+  /** Number of recorded (not undone) versions over all networks, i.e. the length of our chain. */
+  private int chainLength;
 
-  /** The maximum length our chains can be. Will follow FIFO in event we reach this limit. */
+  /** The maximum length our chain can be. Will follow FIFO in event we reach this limit. */
   private int maximumChainLength;
 
+  /** Estimated number of bytes retained by the histories of every network (see NetworkHistory.getBytes). */
+  private long retainedBytes;
+
+  /** The maximum number of bytes our histories should retain. Old checkpoints and versions are dropped past this. */
+  private long maximumRetainedBytes;
+
+  /**
+   * Latest version recorded by modifyNetwork for each network. Further changes can be merged into this version, as long
+   * as it is still the latest version of its network.
+   */
+  private HashMap<Long, NetworkHistory.Version> lastEdits;
+
+  /** Networks with an open edit transaction. Every change made during a transaction is merged into one version. */
+  private HashSet<Long> openEdits;
+
+  /** Changes to a network made within this many milliseconds of its previous change are merged. 0 to never merge. */
+  private long coalesceWindow;
+
   /** The username associated with this controller. Obtained from a successful login. */
   private String u;
 
@@ -34,30 +61,54 @@ public class NetworkController {
   private String j;
 
   /**
-   * Constructor. We initialize our chains here, and use the given value for our maximum chain length. If this value
-   * is negative or zero, then we default to a value of 150.
+   * Constructor. We initialize our chains here, and use the given values for our maximum chain length and for the
+   * maximum (estimated) number of bytes our chains retain. If the chain length is negative or zero, then we default to
+   * a value of 150. If the number of bytes is negative or zero, then we default to a quarter of the maximum heap size.
    *
-   * @param u                  Username associated with the controller. Obtained from a successful login.
-   * @param token              Authentication token associated with this controller. Obtained from a successful login.
-   * @param j                  ProjectsJSON returned from a successful login.
-   * @param maximumChainLength Maximum length of our chains.
+   * @param u                    Username associated with the controller. Obtained from a successful login.
+   * @param token                Authentication token associated with this controller. Obtained from a successful
+   *                             login.
+   * @param j                    ProjectsJSON returned from a successful login.
+   * @param maximumChainLength   Maximum length of our chains.
+   * @param maximumRetainedBytes Maximum number of bytes retained by our chains.
    */
   @SuppressWarnings("WeakerAccess")
-  public NetworkController(String u, String token, String j, int maximumChainLength) {
+  public NetworkController(String u, String token, String j, int maximumChainLength, long maximumRetainedBytes) {
     this.u = u;
     this.token = token;
     this.j = j;
     this.maximumChainLength = (maximumChainLength < 1) ? 150 : maximumChainLength;
-
-    this.networkChain = new ArrayList<>();
-    this.timestampChain = new ArrayList<>();
-    this.removedNetworkChain = new ArrayList<>();
-    this.removedTimestampChain = new ArrayList<>();
+    this.maximumRetainedBytes = (maximumRetainedBytes < 1) ? Runtime.getRuntime().maxMemory() / 4 :
+        maximumRetainedBytes;
+
+    this.histories = new HashMap<>();
+    this.spill = new HistorySpill();
+    this.recordOrder = new ArrayDeque<>();
+    this.chainLength = 0;
+    this.retainedBytes = 0;
+    this.lastEdits = new HashMap<>();
+    this.openEdits = new HashSet<>();
+    this.coalesceWindow = 0;
 
     // Load our networks and network names into our chains.
     UserAccount.idsFromProjectJSON(j).forEach(this::loadNetwork);
   }
 
+  /**
+   * Constructor. We initialize our chains here, and use the given value for our maximum chain length. If this value
+   * is negative or zero, then we default to a value of 150. Our chains retain at most a quarter of the maximum heap
+   * size.
+   *
+   * @param u                  Username associated with the controller. Obtained from a successful login.
+   * @param token              Authentication token associated with this controller. Obtained from a successful login.
+   * @param j                  ProjectsJSON returned from a successful login.
+   * @param maximumChainLength Maximum length of our chains.
+   */
+  @SuppressWarnings("WeakerAccess")
+  public NetworkController(String u, String token, String j, int maximumChainLength) {
+    this(u, token, j, maximumChainLength, 0);
+  }
+
   /**
    * Constructor. We initialize our chains here, and use a default value of 150 links for our maximum chain
    * length.
@@ -71,23 +122,130 @@ public class NetworkController {
   }
 
   /**
-   * Appends the given element to the end of our chains. If we have reached our maximum chain length, remove the first
-   * element and append the elements as normal. We are now unable to "redo", so clear our removed chains.
+   * Appends the given network to the end of its history, which only keeps the changes from the previous version, and
+   * writes the changes of older versions to our spill file (see NetworkHistory). If we have reached our maximum chain
+   * length, remove the oldest version of any network first. We are now unable to "redo" changes of this network.
    *
-   * @param a ActivityNetwork instance to add to our network chain.
-   * @param t Timestamp to add to our timestamp chain.
+   * @param a ActivityNetwork instance to add to our chain.
+   * @param t Timestamp of the new version.
    */
   private void appendToChains(ActivityNetwork a, long t) {
-    if (networkChain.size() > maximumChainLength) {
-      networkChain.remove(0);
-      timestampChain.remove(0);
+    if (chainLength > maximumChainLength) {
+      dropOldestVersion();
     }
 
-    networkChain.add(a);
-    timestampChain.add(t);
+    NetworkHistory h = histories.computeIfAbsent(a.getNetworkId(), id -> new NetworkHistory(id, spill));
+    long bytes = h.getBytes();
+    NetworkHistory.Version v = h.record(a, t);
+    retainedBytes += h.getBytes() - bytes;
+    addToRecordOrder(v);
+    trimToBudget();
+    reclaimSpill();
+  }
 
-    removedNetworkChain.clear();
-    removedTimestampChain.clear();
+  /**
+   * Count the given (newly recorded) version in our chain, as the most recent version of all networks.
+   *
+   * @param v Version that was recorded.
+   */
+  private void addToRecordOrder(NetworkHistory.Version v) {
+    chainLength++;
+    recordOrder.add(v);
+
+    // Don't let versions that are no longer recorded pile up in our queue.
+    if (recordOrder.size() > 2 * chainLength + 16) {
+      recordOrder.removeIf(u -> !u.live);
+    }
+  }
+
+  /**
+   * Drop the oldest recorded version of all networks. A network without any version left is forgotten.
+   */
+  private void dropOldestVersion() {
+    while (!recordOrder.isEmpty()) {
+      NetworkHistory.Version v = recordOrder.poll();
+      if (v.live) {
+        dropVersion(v);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Drop the given version, which **MUST** be the oldest recorded version of its network. Versions are dropped from the
+   * start of each history, in the order they were recorded, so the first version of a network found in our queue is
+   * always its oldest. A network without any version left is forgotten.
+   *
+   * @param v Version to drop.
+   */
+  private void dropVersion(NetworkHistory.Version v) {
+    NetworkHistory h = v.history;
+    long bytes = h.getBytes();
+    h.dropOldest();
+    retainedBytes += h.getBytes() - bytes;
+    chainLength--;
+    if (h.isEmpty()) {
+      histories.remove(h.getNetworkId());
+    }
+  }
+
+  /**
+   * Bring the estimated number of bytes retained by our chains back under our limit. The oldest checkpoints of all
+   * networks are dropped first, as they only speed up "undo" and "redo". If that is not enough, the oldest versions of
+   * all networks are dropped, but never the latest version of a network.
+   */
+  private void trimToBudget() {
+    Iterator<NetworkHistory.Version> it = recordOrder.iterator();
+    while (retainedBytes > maximumRetainedBytes && it.hasNext()) {
+      NetworkHistory.Version v = it.next();
+      if (v.live && v.checkpoint != null) {
+        long bytes = v.history.getBytes();
+        v.history.dropCheckpoint(v);
+        retainedBytes += v.history.getBytes() - bytes;
+      }
+    }
+
+    it = recordOrder.iterator();
+    while (retainedBytes > maximumRetainedBytes && it.hasNext()) {
+      NetworkHistory.Version v = it.next();
+      if (!v.live) {
+        it.remove();
+      } else if (v.history.size() > 1) {
+        it.remove();
+        dropVersion(v);
+      }
+    }
+  }
+
+  /**
+   * Rewrite our spill file once it is mostly free (see HistorySpill.isMostlyFree): the spilled versions that are still
+   * used are moved to a new spill, and the old file is deleted. Once no spilled version is used at all, nothing is
+   * copied, and no file is created until a version is spilled again.
+   */
+  private void reclaimSpill() {
+    if (!spill.isMostlyFree()) {
+      return;
+    }
+
+    HistorySpill fresh = new HistorySpill();
+    for (NetworkHistory h : histories.values()) {
+      long bytes = h.getBytes();
+      h.moveTo(fresh);
+      retainedBytes += h.getBytes() - bytes;
+    }
+    spill.close();
+    spill = fresh;
+  }
+
+  /**
+   * Find the latest version of the given network.
+   *
+   * @param networkID ID of the network.
+   * @return The latest recorded version. Null if there is no version of the network.
+   */
+  private NetworkHistory.Version latestVersion(long networkID) {
+    NetworkHistory h = histories.get(networkID);
+    return (h == null) ? null : h.latest();
   }
 
   /**
@@ -125,74 +283,82 @@ public class NetworkController {
     ActivityNetwork a = new ActivityNetwork(networkID, networkName);
     appendToChains(a, System.currentTimeMillis());
     j = UserAccount.insertIntoProjectJSON(j, a);
-
-    removedNetworkChain.clear();
-    removedTimestampChain.clear();
     return networkID;
   }
 
   /**
    * Append the given network to our chain, but with a new timestamp. Only works if we find a network here with
    * given network ID. The intent here is not add networks that were generated outside of this class. We are now unable
-   * to "redo", so clear our removed chains.
+   * to "redo" changes of this network.
+   * <p>
+   * The change is merged into the latest version instead (so that a single "undo" reverts both) if that version was
+   * also recorded by this method, and either an edit transaction is open for the network (see beginEdit) or the
+   * previous change was made within our coalescing window (see setCoalesceWindow). The change is visible right away
+   * either way.
    *
    * @param a ActivityNetwork instance to add.
    * @return True if the modification was successful. False if there exists no network here with the given network ID.
    */
   public boolean modifyNetwork(ActivityNetwork a) {
-    if (networkChain.stream().noneMatch(n -> n.getNetworkId() == a.getNetworkId())) {
+    long networkID = a.getNetworkId(), t = System.currentTimeMillis();
+    NetworkHistory h = histories.get(networkID);
+    NetworkHistory.Version v = (h == null) ? null : h.latest();
+    if (v == null) {
       return false;
     }
 
-    removedNetworkChain.clear();
-    removedNetworkChain.clear();
-
-    appendToChains(a, System.currentTimeMillis());
+    if (lastEdits.get(networkID) == v &&
+        (openEdits.contains(networkID) || (coalesceWindow > 0 && t - v.timestamp <= coalesceWindow))) {
+      long bytes = h.getBytes();
+      h.amend(a, t);
+      retainedBytes += h.getBytes() - bytes;
+      trimToBudget();
+      reclaimSpill();
+    } else {
+      appendToChains(a, t);
+      lastEdits.put(networkID, histories.get(networkID).latest());
+    }
     return true;
   }
 
   /**
-   * Move the network with the given ID from our network chain to our removed chain if the flag is up. Otherwise, we
-   * perform the inverse action and move the network with the given ID from our removed chain to our network chain.
+   * Open an edit transaction for the given network. Until endEdit is called, every change passed to modifyNetwork is
+   * merged into a single version, so that a single "undo" reverts all of them. Each change is still visible (and can
+   * be stored) right away.
    *
-   * @param networkID    Network ID of the network to move.
-   * @param isUndoAction If true, perform the undo action. Otherwise, perform the redo action.
-   * @return True if a network was successfully transferred. False if the network does not exist.
-   */
-  private boolean moveBetweenChains(long networkID, boolean isUndoAction) {
-    ArrayList<ActivityNetwork> sourceChain, targetChain;
-    ArrayList<Long> sourceTimestampChain, targetTimestampChain;
-
-    // Look... There's a weird bug that's too far in for me to find. This is as dirty as it gets.
-    int s = (isUndoAction) ? 1 : 0;
-
-    // Determine which is the source, and which is the target.
-    if (isUndoAction) {
-      sourceChain = networkChain;
-      targetChain = removedNetworkChain;
-      sourceTimestampChain = timestampChain;
-      targetTimestampChain = removedTimestampChain;
-    } else {
-      sourceChain = removedNetworkChain;
-      targetChain = networkChain;
-      sourceTimestampChain = removedTimestampChain;
-      targetTimestampChain = timestampChain;
+   * @param networkID ID of the network to edit.
+   * @return True if the transaction was opened. False if the network does not exist.
+   */
+  public boolean beginEdit(long networkID) {
+    if (latestVersion(networkID) == null) {
+      return false;
     }
 
-    // We iterate through both lists backwards. Remove the first instance matching the given ID.
-    for (int i = sourceChain.size() - 1; i >= s; i--) {
-      if (sourceChain.get(i).getNetworkId() == networkID) {
-        targetChain.add(sourceChain.get(i));
-        targetTimestampChain.add(sourceTimestampChain.get(i));
+    // The first change of the transaction gets a version of its own.
+    lastEdits.remove(networkID);
+    openEdits.add(networkID);
+    return true;
+  }
 
-        sourceChain.remove(i);
-        sourceTimestampChain.remove(i);
-        return true;
-      }
-    }
+  /**
+   * Close the edit transaction of the given network. The next change gets a version of its own.
+   *
+   * @param networkID ID of the network that was edited.
+   * @return True if a transaction was open for the network. False otherwise.
+   */
+  public boolean endEdit(long networkID) {
+    lastEdits.remove(networkID);
+    return openEdits.remove(networkID);
+  }
 
-    // There exists no network with that ID.
-    return false;
+  /**
+   * Set the coalescing window: changes to a network made within this many milliseconds of its previous change are
+   * merged into one version (see modifyNetwork).
+   *
+   * @param coalesceWindow Length of the window in milliseconds. 0 (the default) or less to never merge changes.
+   */
+  public void setCoalesceWindow(long coalesceWindow) {
+    this.coalesceWindow = Math.max(0, coalesceWindow);
   }
 
   /**
@@ -202,7 +368,15 @@ public class NetworkController {
    * @return True if the network was successfully "removed". False if the network does not exist.
    */
   public boolean undoNetworkChange(long networkID) {
-    return moveBetweenChains(networkID, true);
+    NetworkHistory h = histories.get(networkID);
+    long bytes = (h == null) ? 0 : h.getBytes();
+    if (h == null || h.undo() == null) {
+      return false;
+    }
+
+    retainedBytes += h.getBytes() - bytes;
+    chainLength--;
+    return true;
   }
 
   /**
@@ -212,30 +386,83 @@ public class NetworkController {
    * @return True if a change occurred. False otherwise.
    */
   public boolean redoNetworkChange(long networkID) {
-    return moveBetweenChains(networkID, false);
+    NetworkHistory h = histories.get(networkID);
+    long bytes = (h == null) ? 0 : h.getBytes();
+    NetworkHistory.Version v = (h == null) ? null : h.redo();
+    if (v == null) {
+      return false;
+    }
+
+    retainedBytes += h.getBytes() - bytes;
+    addToRecordOrder(v);
+    trimToBudget();
+    reclaimSpill();
+    return true;
   }
 
   /**
-   * Access the latest instance of the given network from the network chain.
+   * Access the latest instance of the given network from the network chain, to edit it. This starts an edit session:
+   * the returned network is a (copy-on-write) clone that can be changed freely, and modifyNetwork records it as a new
+   * version. Code that only displays the network should use viewNetwork instead.
    *
    * @param networkID Network ID of the network to retrieve.
    * @return An empty network if there exists no network with that ID. Otherwise, the latest instance of that network
    * matching the given ID.
    */
   public ActivityNetwork retrieveNetwork(long networkID) {
-    Collections.reverse(networkChain);
-    for (ActivityNetwork a : networkChain) {
+    NetworkHistory h = histories.get(networkID);
+    ActivityNetwork a = (h == null) ? null : h.latestNetwork();
 
-      // If we find the network, return the list to normal and return **a clone** of the network we found.
-      if (a.getNetworkId() == networkID) {
-        Collections.reverse(networkChain);
-        return a.twin();
-      }
-    }
+    // If we find the network, return **a clone** of the network we found. Otherwise, the network does not exist.
+    return (a == null) ? new ActivityNetwork(0, "Bad") : a.twin();
+  }
 
-    // Otherwise, the network does not exist. Return the list to normal.
-    Collections.reverse(networkChain);
-    return new ActivityNetwork(0, "Bad");
+  /**
+   * Access the instance of the given network as it was at the given time, i.e. the latest version recorded at or
+   * before that time. Versions are found by binary search over the timestamps of the network, and rebuilt from our
+   * chains without reloading the network from the database.
+   *
+   * @param networkID Network ID of the network to retrieve.
+   * @param timestamp Time of the instance to retrieve, in milliseconds since the epoch.
+   * @return An empty network if there exists no network with that ID, or no version of it was recorded by that time.
+   * Otherwise, **a clone** of the instance of that network at that time.
+   */
+  public ActivityNetwork retrieveNetworkAt(long networkID, long timestamp) {
+    NetworkHistory h = histories.get(networkID);
+    int index = (h == null) ? -1 : h.indexAt(timestamp);
+
+    return (index < 0) ? new ActivityNetwork(0, "Bad") : h.networkAt(index).twin();
+  }
+
+  /**
+   * List the timestamps of the recorded versions of the given network within the given time range. Each of these can
+   * be passed to retrieveNetworkAt.
+   *
+   * @param networkID Network ID of the network.
+   * @param from      Start of the time range (inclusive), in milliseconds since the epoch.
+   * @param to        End of the time range (inclusive), in milliseconds since the epoch.
+   * @return The timestamps of the versions recorded within the range, oldest first. Empty if there exists no network
+   * with that ID.
+   */
+  public long[] retrieveTimestamps(long networkID, long from, long to) {
+    NetworkHistory h = histories.get(networkID);
+    return (h == null) ? new long[0] : h.timestampsBetween(from, to);
+  }
+
+  /**
+   * Access a read-only view of the latest instance of the given network, without copying any node or creating a clone
+   * (see NetworkView). The view is only valid until the network is next modified, undone or redone: it **MUST NOT** be
+   * kept past that, and should be taken again instead.
+   *
+   * @param networkID Network ID of the network to view.
+   * @return A view of an empty network if there exists no network with that ID. Otherwise, a view of the latest
+   * instance of that network matching the given ID.
+   */
+  public ActivityNetworkView viewNetwork(long networkID) {
+    NetworkHistory h = histories.get(networkID);
+    ActivityNetwork a = (h == null) ? null : h.latestNetwork();
+
+    return (a == null) ? new NetworkView(null, new ActivityNetwork(0, "Bad")) : new NetworkView(h, a);
   }
 
   /**
@@ -245,51 +472,43 @@ public class NetworkController {
    * @return True if the network was correctly saved. False otherwise.
    */
   public boolean storeNetwork(long networkID) {
-    Collections.reverse(networkChain);
-    for (ActivityNetwork a : networkChain) {
-
-      // If we find the network, save this.
-      if (a.getNetworkId() == networkID) {
-        Collections.reverse(networkChain);
-
-        // Update our Project JSON if successful.
-        String response = NetworkStorage.storeNetwork(token, u, j, a);
-        if (!response.equals("")) {
-          j = response;
-          return true;
-
-        } else {
-          return false;
-        }
-      }
+    NetworkHistory h = histories.get(networkID);
+    ActivityNetwork a = (h == null) ? null : h.latestNetwork();
+    if (a == null) {
+      // The network does not exist. No saving can be performed.
+      return false;
     }
 
-    // Otherwise, the network does not exist. No saving can be performed.
-    Collections.reverse(networkChain);
-    return false;
+    // Update our Project JSON if successful.
+    String response = NetworkStorage.storeNetwork(token, u, j, a);
+    if (!response.equals("")) {
+      j = response;
+      return true;
+
+    } else {
+      return false;
+    }
   }
 
   /**
    * Remove all instances of that network from our chains, and remove it from database as well. This action is
-   * irreversible! We are now unable to "redo", so clear our removed chains.
+   * irreversible! The changes that were undone can no longer be redone either.
    *
    * @param networkID ID of the network to remove.
    * @return True  if the network was deleted from the backend and our chains. False if the network does not exist.
    */
   public boolean deleteNetwork(long networkID) {
-    boolean removedFromChains = false;
-
-    for (int i = 0; i < networkChain.size(); i++) {
-      if (networkChain.get(i).getNetworkId() == networkID) {
-        networkChain.remove(i);
-        timestampChain.remove(i);
-        removedFromChains = true;
-      }
+    NetworkHistory h = histories.remove(networkID);
+    boolean removedFromChains = h != null && h.size() > 0;
+    lastEdits.remove(networkID);
+    openEdits.remove(networkID);
+    if (h != null) {
+      chainLength -= h.size();
+      retainedBytes -= h.getBytes();
+      h.clear();
+      reclaimSpill();
     }
 
-    removedNetworkChain.clear();
-    removedTimestampChain.clear();
-
     // We must remove from the chains, and delete the network from the database.
     String response = NetworkStorage.deleteNetwork(token, u, j, networkID);
     if (!response.equals("")) {
@@ -299,6 +518,21 @@ public class NetworkController {
     return removedFromChains && !response.equals("");
   }
 
+  /**
+   * Close this controller once the user is done with it: our chains are emptied, and our spill file is closed and
+   * deleted. Nothing is saved to the database here (see storeNetwork). Should be called before the program exits.
+   */
+  public void close() {
+    histories.values().forEach(NetworkHistory::clear);
+    histories.clear();
+    recordOrder.clear();
+    lastEdits.clear();
+    openEdits.clear();
+    chainLength = 0;
+    retainedBytes = 0;
+    spill.close();
+  }
+
   /**
    * Access the latest instance of the given network's timestamp from the timestamp chain.
    *
@@ -307,15 +541,26 @@ public class NetworkController {
    * added.
    */
   long retrieveTimestamp(long networkID) {
-    // We iterate through the network chain backwards, and return that same spot in the timestamp chain.
-    for (int i = networkChain.size() - 1; i >= 0; i--) {
-      if (networkChain.get(i).getNetworkId() == networkID) {
-        return timestampChain.get(i);
-      }
-    }
+    NetworkHistory.Version v = latestVersion(networkID);
+    return (v == null) ? -1 : v.timestamp;
+  }
 
-    // The network does not exist.
-    return -1;
+  /**
+   * Accessor method for the estimated number of bytes retained by our chains.
+   *
+   * @return The estimated size of the versions of every network, in bytes.
+   */
+  long getRetainedBytes() {
+    return retainedBytes;
+  }
+
+  /**
+   * Accessor method for the size of our spill file.
+   *
+   * @return The size of the file the older versions of every network are written to, in bytes.
+   */
+  long getSpillBytes() {
+    return spill.getFileBytes();
   }
 
   /**
@@ -0,0 +1,331 @@
+package com.ActivityNetwork;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The NetworkDelta class, which holds the changes between two versions of a network: the nodes that were added or
+ * removed, the nodes whose times, dependencies, name or description were set, and the deadline. Each changed node is
+ * kept as it was before and after the change, so a delta can be applied in both directions (to undo and to redo). Only
+ * the changed nodes are copied, so the size of a delta depends on the size of the edit, not on the size of the network.
+ */
+final class NetworkDelta {
+  /** Each changed node as it was before the change. Null for nodes that were added. */
+  private final ActivityNode[] before;
+
+  /** Each changed node as it was after the change, in the same order. Null for nodes that were removed. */
+  private final ActivityNode[] after;
+
+  /** The network deadline before the change. */
+  private final double deadlineBefore;
+
+  /** The network deadline after the change. */
+  private final double deadlineAfter;
+
+  /** Estimated size of the nodes before the change, in bytes. */
+  private final long bytesBefore;
+
+  /** Estimated size of the nodes after the change, in bytes. */
+  private final long bytesAfter;
+
+  /**
+   * Constructor.
+   *
+   * @param before         Each changed node as it was before the change.
+   * @param after          Each changed node as it was after the change.
+   * @param deadlineBefore The network deadline before the change.
+   * @param deadlineAfter  The network deadline after the change.
+   */
+  private NetworkDelta(ActivityNode[] before, ActivityNode[] after, double deadlineBefore, double deadlineAfter) {
+    this.before = before;
+    this.after = after;
+    this.deadlineBefore = deadlineBefore;
+    this.deadlineAfter = deadlineAfter;
+    this.bytesBefore = estimateBytes(before);
+    this.bytesAfter = estimateBytes(after);
+  }
+
+  /**
+   * Estimate the number of bytes the given nodes retain, including their place in a network (see
+   * ActivityNetwork.estimateBytes).
+   *
+   * @param nodes Nodes to estimate the size of. Null entries are skipped.
+   * @return The estimated size of the nodes in bytes.
+   */
+  private static long estimateBytes(ActivityNode[] nodes) {
+    long bytes = 0;
+    for (ActivityNode n : nodes) {
+      if (n != null) {
+        bytes += ActivityNetwork.estimateBytes(n);
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Compute the changes from one version of a network to another, in O(V + E) time. Nodes that are still shared by
+   * both versions (see ActivityNetwork.twin) are skipped without comparing them, and versions backed by the same store
+   * (see NodeStore) are not compared at all.
+   *
+   * @param from The older version of the network.
+   * @param to   The newer version of the network.
+   * @return The changes that turn the older version into the newer version.
+   */
+  static NetworkDelta between(ActivityNetwork from, ActivityNetwork to) {
+    if (from.sharesStoreWith(to)) {
+      return new NetworkDelta(new ActivityNode[0], new ActivityNode[0], from.getHoursDeadline(),
+          to.getHoursDeadline());
+    }
+
+    ArrayList<ActivityNode> before = new ArrayList<>(), after = new ArrayList<>();
+    for (ActivityNode n : to.sortedNodes()) {
+      ActivityNode m = from.getNode(n.getNodeId());
+      if (m != n && (m == null || !isSameNode(m, n))) {
+        before.add((m == null) ? null : m.twin());
+        after.add(n.twin());
+      }
+    }
+    for (ActivityNode m : from.sortedNodes()) {
+      if (to.getNode(m.getNodeId()) == null) {
+        before.add(m.twin());
+        after.add(null);
+      }
+    }
+
+    return new NetworkDelta(before.toArray(new ActivityNode[0]), after.toArray(new ActivityNode[0]),
+        from.getHoursDeadline(), to.getHoursDeadline());
+  }
+
+  /**
+   * Check if two nodes (with the same ID) hold the same name, description, times and dependencies.
+   *
+   * @param m First node to compare.
+   * @param n Second node to compare.
+   * @return True if both nodes hold the same fields. False otherwise.
+   */
+  private static boolean isSameNode(ActivityNode m, ActivityNode n) {
+    DependencySet d = m.getDependencies(), e = n.getDependencies();
+    if (!m.getName().equals(n.getName()) || !m.getDescription().equals(n.getDescription()) ||
+        m.getOptimisticTime() != n.getOptimisticTime() || m.getNormalTime() != n.getNormalTime() ||
+        m.getPessimisticTime() != n.getPessimisticTime() || d.size() != e.size()) {
+      return false;
+    }
+
+    // Both dependency sets are sorted.
+    for (int i = 0; i < d.size(); i++) {
+      if (d.get(i) != e.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Apply this delta to the given network, which is left unchanged. Applying a delta forward to the older version of
+   * the network gives the newer version, and applying it backward to the newer version gives the older version.
+   *
+   * @param a       Network to apply the delta to.
+   * @param forward True to apply the changes. False to revert them.
+   * @return A new network, with the changes applied or reverted.
+   * @throws IllegalStateException If the delta does not apply to the given network (see ActivityNetwork.withChanges).
+   */
+  ActivityNetwork applyTo(ActivityNetwork a, boolean forward) {
+    ActivityNode[] target = forward ? after : before;
+    HashMap<Long, ActivityNode> changes = new HashMap<>(target.length * 2);
+    for (int i = 0; i < target.length; i++) {
+      long nodeId = (before[i] != null) ? before[i].getNodeId() : after[i].getNodeId();
+      changes.put(nodeId, target[i]);
+    }
+
+    return a.withChanges(changes, forward ? deadlineAfter : deadlineBefore);
+  }
+
+  /**
+   * Combine this delta with the delta that follows it into a single delta, in O(D) time for D changed nodes. Nodes
+   * that end up as they were before this delta (e.g. a node that was added, then removed) are left out.
+   *
+   * @param next The changes made right after this delta.
+   * @return The changes of both deltas, from the version before this delta to the version after the given delta.
+   */
+  NetworkDelta then(NetworkDelta next) {
+    LinkedHashMap<Long, ActivityNode[]> merged = new LinkedHashMap<>();
+    for (int i = 0; i < before.length; i++) {
+      merged.put((before[i] != null) ? before[i].getNodeId() : after[i].getNodeId(),
+          new ActivityNode[]{before[i], after[i]});
+    }
+    for (int i = 0; i < next.before.length; i++) {
+      long nodeId = (next.before[i] != null) ? next.before[i].getNodeId() : next.after[i].getNodeId();
+      ActivityNode[] e = merged.get(nodeId);
+      if (e == null) {
+        merged.put(nodeId, new ActivityNode[]{next.before[i], next.after[i]});
+      } else {
+        e[1] = next.after[i];
+      }
+    }
+
+    ArrayList<ActivityNode> b = new ArrayList<>(merged.size()), a = new ArrayList<>(merged.size());
+    for (ActivityNode[] e : merged.values()) {
+      if ((e[0] == null) ? e[1] != null : (e[1] == null || !isSameNode(e[0], e[1]))) {
+        b.add(e[0]);
+        a.add(e[1]);
+      }
+    }
+    return new NetworkDelta(b.toArray(new ActivityNode[0]), a.toArray(new ActivityNode[0]), deadlineBefore,
+        next.deadlineAfter);
+  }
+
+  /**
+   * Add the state of each changed node before the change to the given changes, replacing the state recorded there.
+   * Reverting a sequence of deltas from the newest to the oldest this way leaves the state of each changed node in the
+   * version before the oldest delta, so that the whole sequence can be reverted at once (see
+   * ActivityNetwork.withChanges).
+   *
+   * @param changes The state of each changed node, by node ID. Null for nodes that did not exist.
+   */
+  void revertInto(Map<Long, ActivityNode> changes) {
+    for (int i = 0; i < before.length; i++) {
+      changes.put((before[i] != null) ? before[i].getNodeId() : after[i].getNodeId(), before[i]);
+    }
+  }
+
+  /**
+   * Accessor method for the network deadline before the change.
+   *
+   * @return The network deadline before the change.
+   */
+  double getDeadlineBefore() {
+    return deadlineBefore;
+  }
+
+  /**
+   * Encode this delta, so that it can be kept outside of the heap (see HistorySpill).
+   *
+   * @return The encoded delta.
+   */
+  byte[] toBytes() {
+    ByteArrayOutputStream b = new ByteArrayOutputStream(32 + 64 * before.length);
+    DataOutputStream out = new DataOutputStream(b);
+    try {
+      out.writeDouble(deadlineBefore);
+      out.writeDouble(deadlineAfter);
+      out.writeInt(before.length);
+      for (int i = 0; i < before.length; i++) {
+        writeNode(out, before[i]);
+        writeNode(out, after[i]);
+      }
+    } catch (IOException e) {
+      // Writing to a ByteArrayOutputStream never fails.
+      throw new UncheckedIOException(e);
+    }
+    return b.toByteArray();
+  }
+
+  /**
+   * Encode the given node: its ID, name, description, times and dependencies.
+   *
+   * @param out Stream to write the node to.
+   * @param n   Node to encode, or null.
+   * @throws IOException If the stream cannot be written to.
+   */
+  private static void writeNode(DataOutputStream out, ActivityNode n) throws IOException {
+    out.writeBoolean(n != null);
+    if (n == null) {
+      return;
+    }
+
+    byte[] name = n.getName().getBytes(StandardCharsets.UTF_8);
+    byte[] description = n.getDescription().getBytes(StandardCharsets.UTF_8);
+    out.writeLong(n.getNodeId());
+    out.writeInt(name.length);
+    out.write(name);
+    out.writeInt(description.length);
+    out.write(description);
+    out.writeDouble(n.getOptimisticTime());
+    out.writeDouble(n.getNormalTime());
+    out.writeDouble(n.getPessimisticTime());
+    out.writeInt(n.getDependencies().size());
+    for (int i = 0; i < n.getDependencies().size(); i++) {
+      out.writeLong(n.getDependencies().get(i));
+    }
+  }
+
+  /**
+   * Decode a delta encoded by toBytes.
+   *
+   * @param b Buffer holding the encoded delta, from its position on.
+   * @return The decoded delta.
+   */
+  static NetworkDelta fromBytes(ByteBuffer b) {
+    double deadlineBefore = b.getDouble(), deadlineAfter = b.getDouble();
+    ActivityNode[] before = new ActivityNode[b.getInt()], after = new ActivityNode[before.length];
+    for (int i = 0; i < before.length; i++) {
+      before[i] = readNode(b);
+      after[i] = readNode(b);
+    }
+    return new NetworkDelta(before, after, deadlineBefore, deadlineAfter);
+  }
+
+  /**
+   * Decode a node encoded by writeNode.
+   *
+   * @param b Buffer holding the encoded node, from its position on.
+   * @return The decoded node, or null.
+   */
+  private static ActivityNode readNode(ByteBuffer b) {
+    if (b.get() == 0) {
+      return null;
+    }
+
+    long nodeId = b.getLong();
+    byte[] name = new byte[b.getInt()];
+    b.get(name);
+    byte[] description = new byte[b.getInt()];
+    b.get(description);
+    ActivityNode n = new ActivityNode(nodeId, new String(name, StandardCharsets.UTF_8),
+        new String(description, StandardCharsets.UTF_8), b.getDouble(), b.getDouble(), b.getDouble());
+
+    DependencySet d = new DependencySet();
+    for (int k = b.getInt(); k > 0; k--) {
+      d.add(b.getLong());
+    }
+    n.replaceDependencies(d);
+    return n;
+  }
+
+  /**
+   * Estimate the number of bytes this delta retains.
+   *
+   * @return The estimated size of this delta in bytes.
+   */
+  long estimateBytes() {
+    return 64 + 8L * before.length + bytesBefore + bytesAfter;
+  }
+
+  /**
+   * Estimate how much the size of a network changes when this delta is applied to it (see
+   * ActivityNetwork.estimateBytes).
+   *
+   * @param forward True to apply the changes. False to revert them.
+   * @return The estimated change in size, in bytes.
+   */
+  long estimateGrowth(boolean forward) {
+    return forward ? bytesAfter - bytesBefore : bytesBefore - bytesAfter;
+  }
+
+  /**
+   * Accessor method for the number of changed nodes.
+   *
+   * @return The number of nodes that were added, removed or changed.
+   */
+  int size() {
+    return before.length;
+  }
+}
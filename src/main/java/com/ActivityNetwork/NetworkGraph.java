@@ -0,0 +1,367 @@
+package com.ActivityNetwork;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The NetworkGraph class, which holds the dependency graph of a network in compressed sparse row form. Each node is
+ * given a dense index, and the dependencies and successors of every node are stored in flat int arrays, so traversals
+ * never touch boxed IDs or hash sets. A graph is never changed after it is built: ActivityNetwork builds a new one
+ * once its nodes or dependencies have changed. Reachability labels for dependency queries are computed on first use.
+ */
+final class NetworkGraph {
+  /** Map of node IDs to their index in the arrays below. */
+  private final LongIndex indexOf;
+
+  /** Node ID of each node, indexed by node index. */
+  private final long[] nodeIds;
+
+  /** Start of the dependencies of each node in the array below (with one extra entry for the end of the last node). */
+  private final int[] dependencyOffsets;
+
+  /** Indices of the dependencies of every node, in the order each node lists them. Missing dependencies are left out. */
+  private final int[] dependencies;
+
+  /** Start of the successors of each node in the array below (with one extra entry for the end of the last node). */
+  private final int[] successorOffsets;
+
+  /** Indices of the successors of every node, in increasing order. */
+  private final int[] successors;
+
+  /** Largest index that can be reached from each node through its successors, computed on first use. */
+  private int[] reachLimit;
+
+  /**
+   * Constructor. Builds the graph of the given nodes, in O(V + E) time. Node i of the given list is given index i.
+   * Dependencies that do not exist in the list are ignored.
+   *
+   * @param nodes Nodes of the graph.
+   */
+  NetworkGraph(List<ActivityNode> nodes) {
+    this(nodes.stream().mapToLong(ActivityNode::getNodeId).toArray(),
+        nodes.stream().map(ActivityNode::getDependencies).collect(Collectors.toList()));
+  }
+
+  /**
+   * Constructor. Builds the graph of the given node IDs and dependencies, in O(V + E) time. Dependencies that do not
+   * exist in the given IDs are ignored.
+   *
+   * @param nodeIds      Node ID of each node.
+   * @param dependencies Dependencies of each node, in the same order as the node IDs.
+   */
+  NetworkGraph(long[] nodeIds, List<DependencySet> dependencies) {
+    this(nodeIds, offsetsOf(dependencies.toArray(new DependencySet[0])),
+        idsOf(dependencies.toArray(new DependencySet[0])));
+  }
+
+  /**
+   * Constructor. Builds the graph of the given node IDs and dependency IDs, in O(V + E) time. The dependencies are
+   * given in the same form as the graph stores them, only with node IDs instead of node indices. Dependencies that do
+   * not exist in the given IDs are ignored.
+   *
+   * @param nodeIds           Node ID of each node.
+   * @param dependencyOffsets Start of the dependencies of each node in dependencyIds (with one extra entry at the end).
+   * @param dependencyIds     Node IDs of the dependencies of every node.
+   */
+  NetworkGraph(long[] nodeIds, int[] dependencyOffsets, long[] dependencyIds) {
+    int n = nodeIds.length;
+    this.nodeIds = nodeIds;
+    this.indexOf = new LongIndex(n);
+    for (int i = 0; i < n; i++) {
+      indexOf.put(nodeIds[i], i);
+    }
+
+    // Resolve the dependencies of each node once, and count the successors of each node along the way.
+    this.dependencyOffsets = new int[n + 1];
+    int[] resolved = new int[dependencyOffsets[n]];
+    int edges = 0;
+    for (int i = 0; i < n; i++) {
+      for (int k = dependencyOffsets[i]; k < dependencyOffsets[i + 1]; k++) {
+        int j = indexOf.get(dependencyIds[k]);
+        if (j != LongIndex.ABSENT) {
+          resolved[edges++] = j;
+        }
+      }
+      this.dependencyOffsets[i + 1] = edges;
+    }
+    this.dependencies = (edges == resolved.length) ? resolved : Arrays.copyOf(resolved, edges);
+    this.successorOffsets = new int[n + 1];
+    this.successors = new int[edges];
+    linkSuccessors();
+  }
+
+  /**
+   * Constructor. Builds a graph from arrays that are already resolved, which are not copied.
+   *
+   * @param nodeIds           Node ID of each node.
+   * @param indexOf           Map of node IDs to their index.
+   * @param dependencyOffsets Start of the dependencies of each node (with one extra entry at the end).
+   * @param dependencies      Indices of the dependencies of every node.
+   */
+  private NetworkGraph(long[] nodeIds, LongIndex indexOf, int[] dependencyOffsets, int[] dependencies) {
+    this.nodeIds = nodeIds;
+    this.indexOf = indexOf;
+    this.dependencyOffsets = dependencyOffsets;
+    this.dependencies = dependencies;
+    this.successorOffsets = new int[nodeIds.length + 1];
+    this.successors = new int[dependencies.length];
+    linkSuccessors();
+  }
+
+  /**
+   * Fill the successor arrays by flipping every dependency. The successors of each node end up in increasing order.
+   */
+  private void linkSuccessors() {
+    int n = nodeIds.length;
+    for (int k = 0; k < dependencies.length; k++) {
+      successorOffsets[dependencies[k] + 1]++;
+    }
+    for (int i = 0; i < n; i++) {
+      successorOffsets[i + 1] += successorOffsets[i];
+    }
+
+    int[] filled = Arrays.copyOf(successorOffsets, n);
+    for (int i = 0; i < n; i++) {
+      for (int k = dependencyOffsets[i]; k < dependencyOffsets[i + 1]; k++) {
+        successors[filled[dependencies[k]]++] = i;
+      }
+    }
+  }
+
+  /**
+   * Compute where the dependencies of each of the given sets start once they are put in one array.
+   *
+   * @param dependencies Dependencies of each node.
+   * @return The start of the dependencies of each node, with one extra entry at the end.
+   */
+  private static int[] offsetsOf(DependencySet[] dependencies) {
+    int[] offsets = new int[dependencies.length + 1];
+    for (int i = 0; i < dependencies.length; i++) {
+      offsets[i + 1] = offsets[i] + dependencies[i].size();
+    }
+    return offsets;
+  }
+
+  /**
+   * Put the dependencies of each of the given sets in one array, one set after the other.
+   *
+   * @param dependencies Dependencies of each node.
+   * @return The node IDs of the dependencies of every node.
+   */
+  private static long[] idsOf(DependencySet[] dependencies) {
+    long[] ids = new long[Arrays.stream(dependencies).mapToInt(DependencySet::size).sum()];
+    int k = 0;
+    for (DependencySet d : dependencies) {
+      for (int m = 0; m < d.size(); m++) {
+        ids[k++] = d.get(m);
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Sort the graph in topological order using Kahn's algorithm. Of all nodes that are ready, the one with the lowest
+   * index is taken first, so a graph whose indices are already in topological order keeps its order.
+   *
+   * @return The node indices in topological order. Null if the graph holds a cycle.
+   */
+  int[] sort() {
+    int n = nodeIds.length;
+    int[] remaining = new int[n], order = new int[n];
+    IntHeap ready = new IntHeap(n, false);
+    for (int i = 0; i < n; i++) {
+      remaining[i] = dependencyOffsets[i + 1] - dependencyOffsets[i];
+      if (remaining[i] == 0) {
+        ready.add(i);
+      }
+    }
+
+    // If some node is never ready, the graph holds a cycle.
+    int sorted = 0;
+    while (!ready.isEmpty()) {
+      int i = ready.poll();
+      order[sorted++] = i;
+      for (int k = successorOffsets[i]; k < successorOffsets[i + 1]; k++) {
+        if (--remaining[successors[k]] == 0) {
+          ready.add(successors[k]);
+        }
+      }
+    }
+    return (sorted < n) ? null : order;
+  }
+
+  /**
+   * Build a copy of this graph whose node indices follow the given order, e.g. the one returned by sort(). Node
+   * order[k] of this graph is given index k in the new graph. Only the int arrays are rebuilt, in O(V + E) time.
+   *
+   * @param order Indices of this graph, in the order they should have in the new graph. Every index appears once.
+   * @return The reordered graph. This graph if the order is the identity.
+   */
+  NetworkGraph reorder(int[] order) {
+    int n = nodeIds.length;
+    int[] position = new int[n];
+    boolean identity = true;
+    for (int k = 0; k < n; k++) {
+      position[order[k]] = k;
+      identity &= order[k] == k;
+    }
+    if (identity) {
+      return this;
+    }
+
+    long[] ids = new long[n];
+    LongIndex index = new LongIndex(n);
+    int[] offsets = new int[n + 1], resolved = new int[dependencies.length];
+    for (int k = 0; k < n; k++) {
+      int i = order[k];
+      ids[k] = nodeIds[i];
+      index.put(ids[k], k);
+      offsets[k + 1] = offsets[k];
+      for (int m = dependencyOffsets[i]; m < dependencyOffsets[i + 1]; m++) {
+        resolved[offsets[k + 1]++] = position[dependencies[m]];
+      }
+    }
+    return new NetworkGraph(ids, index, offsets, resolved);
+  }
+
+  /**
+   * Check if node j can be reached from node i by following successors, i.e. if node j depends on node i directly or
+   * through other nodes. The node indices of this graph **MUST** be in topological order. Since every node reachable
+   * from i lies between i and the reach limit of i, most queries are answered in O(1) time. Otherwise only the nodes
+   * between i and j that can still reach j are searched.
+   *
+   * @param i Index of the node to start from.
+   * @param j Index of the node to reach.
+   * @return True if j can be reached from i, and i != j. False otherwise.
+   */
+  boolean reaches(int i, int j) {
+    int[] limit = computeReachLimit();
+    if (j <= i || j > limit[i]) {
+      return false;
+    }
+
+    // Depth-first search, skipping nodes that come after j or cannot reach as far as j. Each node between i and j is
+    // pushed at most once, so the stack never holds more than j - i nodes.
+    BitSet visited = new BitSet();
+    int[] pending = new int[j - i];
+    int top = 0;
+    pending[top++] = i;
+    while (top > 0) {
+      int k = pending[--top];
+      for (int m = successorOffsets[k]; m < successorOffsets[k + 1]; m++) {
+        int s = successors[m];
+        if (s == j) {
+          return true;
+        }
+        if (s < j && limit[s] >= j && !visited.get(s - i)) {
+          visited.set(s - i);
+          pending[top++] = s;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Compute the largest index that can be reached from each node, in one pass over the nodes in reverse order. The
+   * node indices of this graph **MUST** be in topological order. The result is only computed once.
+   *
+   * @return The reach limit of each node (at least the index of the node itself).
+   */
+  private int[] computeReachLimit() {
+    if (reachLimit == null) {
+      int[] limit = new int[nodeIds.length];
+      for (int i = nodeIds.length - 1; i >= 0; i--) {
+        limit[i] = i;
+        for (int k = successorOffsets[i]; k < successorOffsets[i + 1]; k++) {
+          limit[i] = Math.max(limit[i], limit[successors[k]]);
+        }
+      }
+      reachLimit = limit;
+    }
+
+    return reachLimit;
+  }
+
+  /**
+   * Find the index of the node with the given ID.
+   *
+   * @param nodeId ID of the node to find the index of.
+   * @return Index of the node. -1 if the node is not in this graph.
+   */
+  int indexOf(long nodeId) {
+    return indexOf.get(nodeId);
+  }
+
+  /**
+   * Accessor method for the number of nodes.
+   *
+   * @return The number of nodes in this graph.
+   */
+  int size() {
+    return nodeIds.length;
+  }
+
+  /**
+   * Accessor method for the node ID of a node.
+   *
+   * @param i Index of the node.
+   * @return The node ID of the node with the given index.
+   */
+  long getNodeId(int i) {
+    return nodeIds[i];
+  }
+
+  /**
+   * Accessor method for the node IDs. The returned array **MUST NOT** be modified.
+   *
+   * @return The node ID of each node, indexed by node index.
+   */
+  long[] getNodeIds() {
+    return nodeIds;
+  }
+
+  /**
+   * Accessor method for the start of the dependencies of each node. The dependencies of node i are found in
+   * getDependencies() between getDependencyOffsets()[i] and getDependencyOffsets()[i + 1]. The returned array **MUST
+   * NOT** be modified.
+   *
+   * @return The start of the dependencies of each node, with one extra entry at the end.
+   */
+  int[] getDependencyOffsets() {
+    return dependencyOffsets;
+  }
+
+  /**
+   * Accessor method for the dependencies of every node (see getDependencyOffsets). The returned array **MUST NOT** be
+   * modified.
+   *
+   * @return The indices of the dependencies of every node.
+   */
+  int[] getDependencies() {
+    return dependencies;
+  }
+
+  /**
+   * Accessor method for the start of the successors of each node. The successors of node i are found in
+   * getSuccessors() between getSuccessorOffsets()[i] and getSuccessorOffsets()[i + 1]. The returned array **MUST NOT**
+   * be modified.
+   *
+   * @return The start of the successors of each node, with one extra entry at the end.
+   */
+  int[] getSuccessorOffsets() {
+    return successorOffsets;
+  }
+
+  /**
+   * Accessor method for the successors of every node (see getSuccessorOffsets). The returned array **MUST NOT** be
+   * modified.
+   *
+   * @return The indices of the successors of every node.
+   */
+  int[] getSuccessors() {
+    return successors;
+  }
+}
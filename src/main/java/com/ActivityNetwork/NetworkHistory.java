@@ -0,0 +1,658 @@
+package com.ActivityNetwork;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * The NetworkHistory class, which holds the recorded versions of a single network (oldest first), along with the
+ * versions that were undone (for redo). Versions are only recorded, undone and redone at the end of the history, and
+ * only dropped from its start, so no operation depends on how many other versions or networks there are.
+ * <p>
+ * Only the latest network is kept whole. Every other version holds the changes from the version before it (see
+ * NetworkDelta), and every CHECKPOINT_INTERVAL-th version also keeps its whole network, so that memory grows with the
+ * size of the edits rather than with the size of the network times the number of versions. Undo applies the latest
+ * delta backward (or picks up a checkpoint), and redo applies it forward again.
+ * <p>
+ * The history keeps an estimate of the bytes it retains (see ActivityNetwork.estimateBytes), so that the memory used by
+ * all histories can be limited (see NetworkController). Checkpoints are only there to speed up undo and redo, so they
+ * can be dropped at any time.
+ * <p>
+ * Given a spill, only the latest HOT_VERSIONS versions are kept in memory. The deltas of older versions are written to
+ * the spill (see HistorySpill) and read back whenever they are needed, and their checkpoints are dropped, so the heap
+ * used by a history stays flat no matter how many versions it holds. A spilled delta is freed in the spill once its
+ * version is dropped or discarded, and the spilled deltas can be moved to another spill (see moveTo).
+ * <p>
+ * The timestamps of the recorded versions are kept in a sorted array next to the versions, so the version of the
+ * network as of any time is found by binary search, and rebuilt from the nearest later checkpoint (see networkAt).
+ */
+final class NetworkHistory {
+  /** Number of versions recorded between two versions that keep their whole network. */
+  static final int CHECKPOINT_INTERVAL = 16;
+
+  /** Number of latest versions whose deltas are kept in memory, if the history has a spill. */
+  static final int HOT_VERSIONS = 32;
+
+  /**
+   * The Version class, a single recorded version of a network.
+   */
+  static final class Version {
+    /** History this version belongs to. */
+    final NetworkHistory history;
+
+    /**
+     * Changes from the version before this one. Null for the oldest version, once the version is discarded, and while
+     * the delta is spilled.
+     */
+    NetworkDelta delta;
+
+    /** Position of the delta in the spill of the history. -1 if the delta is not spilled. */
+    long spilledAt;
+
+    /** The whole network, if this version is a checkpoint. Null otherwise, and once the version is discarded. */
+    ActivityNetwork checkpoint;
+
+    /** Estimated size of the checkpoint in bytes. */
+    long checkpointBytes;
+
+    /** Time the version was recorded (or last amended), in milliseconds since the epoch. */
+    long timestamp;
+
+    /** True while the version is one of the recorded versions of its history (i.e. not undone or dropped). */
+    boolean live;
+
+    /**
+     * Constructor.
+     *
+     * @param history         History the version belongs to.
+     * @param delta           Changes from the version before this one, or null.
+     * @param checkpoint      The whole network, or null.
+     * @param checkpointBytes Estimated size of the checkpoint in bytes.
+     * @param timestamp       Time the version was recorded.
+     */
+    Version(NetworkHistory history, NetworkDelta delta, ActivityNetwork checkpoint, long checkpointBytes,
+            long timestamp) {
+      this.history = history;
+      this.delta = delta;
+      this.checkpoint = checkpoint;
+      this.checkpointBytes = checkpointBytes;
+      this.timestamp = timestamp;
+      this.live = true;
+      this.spilledAt = -1;
+    }
+
+    /**
+     * Accessor method for the changes from the version before this one, reading them back from the spill if needed.
+     *
+     * @return The changes from the version before this one. Null if there is no version before this one.
+     */
+    NetworkDelta getDelta() {
+      return (spilledAt < 0) ? delta : history.spill.read(spilledAt);
+    }
+
+    /**
+     * Estimate the number of bytes this version retains.
+     *
+     * @return The estimated size of the delta and checkpoint of this version in bytes.
+     */
+    long estimateBytes() {
+      return ((delta == null) ? 0 : delta.estimateBytes()) + ((checkpoint == null) ? 0 : checkpointBytes);
+    }
+
+    /**
+     * Free the spilled delta of this version, if any, once the version no longer uses it.
+     */
+    void freeSpilled() {
+      if (spilledAt >= 0) {
+        history.spill.free(spilledAt);
+        spilledAt = -1;
+      }
+    }
+
+    /**
+     * Release the changes and network held by this version.
+     */
+    void discard() {
+      delta = null;
+      freeSpilled();
+      checkpoint = null;
+      checkpointBytes = 0;
+    }
+  }
+
+  /** ID of the network. */
+  private final long networkId;
+
+  /** Spill for the deltas of our older versions. Null to keep every delta in memory. */
+  private HistorySpill spill;
+
+  /** Recorded versions, oldest first. Only the positions between first and end are used. */
+  private Version[] versions;
+
+  /** Timestamp of each recorded version, at the same position as the version. Never decreases. */
+  private long[] timestamps;
+
+  /** Position of the oldest recorded version. */
+  private int first;
+
+  /** Position after the latest recorded version. */
+  private int end;
+
+  /** Versions that were undone, the most recently undone last. */
+  private final ArrayList<Version> undone;
+
+  /**
+   * The network of the latest recorded version. If every version was dropped or undone, the network that the earliest
+   * undone version applies its delta to (null if that version is a checkpoint).
+   */
+  private ActivityNetwork head;
+
+  /** Estimated size of the head network in bytes. */
+  private long headBytes;
+
+  /**
+   * Estimated number of bytes retained by every version of this history, recorded or undone. The head network is not
+   * included (see getBytes).
+   */
+  private long bytes;
+
+  /** Number of versions recorded since the last checkpoint. */
+  private int sinceCheckpoint;
+
+  /**
+   * Constructor. Creates an empty history, which keeps every delta in memory.
+   *
+   * @param networkId ID of the network.
+   */
+  NetworkHistory(long networkId) {
+    this(networkId, null);
+  }
+
+  /**
+   * Constructor. Creates an empty history, which writes the deltas of its older versions to the given spill.
+   *
+   * @param networkId ID of the network.
+   * @param spill     Spill for the deltas of older versions, shared with other histories. Null to keep every delta in
+   *                  memory.
+   */
+  NetworkHistory(long networkId, HistorySpill spill) {
+    this.networkId = networkId;
+    this.spill = spill;
+    this.versions = new Version[4];
+    this.timestamps = new long[4];
+    this.first = 0;
+    this.end = 0;
+    this.undone = new ArrayList<>();
+    this.head = null;
+    this.headBytes = 0;
+    this.bytes = 0;
+    this.sinceCheckpoint = 0;
+  }
+
+  /**
+   * Replace the head network.
+   *
+   * @param a      The new head network, or null.
+   * @param aBytes Estimated size of the new head network in bytes.
+   */
+  private void setHead(ActivityNetwork a, long aBytes) {
+    head = a;
+    headBytes = aBytes;
+  }
+
+  /**
+   * Release a network this history has stopped holding (see ActivityNetwork.release), so that the network it was
+   * cloned from no longer copies its nodes for it. Nothing is done if the network is still the head, or the checkpoint
+   * of the latest or of an undone version (the only versions whose checkpoint can also be held elsewhere).
+   *
+   * @param a Network that was dropped, or null.
+   */
+  private void release(ActivityNetwork a) {
+    if (a == null || a == head || (first < end && versions[end - 1].checkpoint == a)) {
+      return;
+    }
+    for (Version u : undone) {
+      if (u.checkpoint == a) {
+        return;
+      }
+    }
+    a.release();
+  }
+
+  /**
+   * Append the given version to the end of this history, making room first if needed.
+   *
+   * @param v Version to append.
+   */
+  private void push(Version v) {
+    if (end == versions.length) {
+      // Slide our versions back to the start if half of the array is free. Otherwise, grow the array.
+      if (first > versions.length / 2) {
+        System.arraycopy(versions, first, versions, 0, end - first);
+        System.arraycopy(timestamps, first, timestamps, 0, end - first);
+        Arrays.fill(versions, end - first, end, null);
+      } else {
+        versions = Arrays.copyOfRange(versions, first, first + versions.length * 2);
+        timestamps = Arrays.copyOfRange(timestamps, first, first + timestamps.length * 2);
+      }
+      end -= first;
+      first = 0;
+    }
+
+    timestamps[end] = v.timestamp;
+    versions[end++] = v;
+
+    // The version that just left our hot window is written to the spill. If that fails, it stays in memory.
+    if (spill != null && end - first > HOT_VERSIONS) {
+      Version w = versions[end - 1 - HOT_VERSIONS];
+      if (w.delta != null || w.checkpoint != null) {
+        ActivityNetwork c = w.checkpoint;
+        bytes -= w.estimateBytes();
+        long position = (w.delta == null) ? -1 : spill.write(w.delta);
+        if (position >= 0) {
+          w.delta = null;
+          w.spilledAt = position;
+        }
+        w.checkpoint = null;
+        w.checkpointBytes = 0;
+        bytes += w.estimateBytes();
+        release(c);
+      }
+    }
+  }
+
+  /**
+   * Record a new version of the network, as the changes from the latest version. Versions that were undone can no
+   * longer be redone.
+   *
+   * @param network   The network to record. A (copy-on-write) clone is kept, so it can still be changed afterwards.
+   * @param timestamp Time of the recording. If it is before the time of the latest version (e.g. the clock was set
+   *                  back), the time of the latest version is used instead.
+   * @return The recorded version.
+   */
+  Version record(ActivityNetwork network, long timestamp) {
+    clearUndone();
+    if (first < end) {
+      timestamp = Math.max(timestamp, timestamps[end - 1]);
+    }
+
+    ActivityNetwork a = network.twin();
+    Version v;
+    if (first == end) {
+      setHead(a, a.estimateBytes());
+      v = new Version(this, null, a, headBytes, timestamp);
+      sinceCheckpoint = 0;
+    } else {
+      ActivityNetwork previous = head;
+      NetworkDelta d = NetworkDelta.between(head, a);
+      setHead(a, headBytes + d.estimateGrowth(true));
+      release(previous);
+      if (++sinceCheckpoint == CHECKPOINT_INTERVAL) {
+        v = new Version(this, d, a, headBytes, timestamp);
+        sinceCheckpoint = 0;
+      } else {
+        v = new Version(this, d, null, 0, timestamp);
+      }
+    }
+
+    bytes += v.estimateBytes();
+    push(v);
+    return v;
+  }
+
+  /**
+   * Merge a new state of the network into the latest version, instead of recording a new version. The changes of the
+   * latest version are combined with the changes to the new state (see NetworkDelta.then), so the history holds a
+   * single version for both edits. There **MUST** be a recorded version, and no undone version.
+   *
+   * @param network   The network to merge. A (copy-on-write) clone is kept, so it can still be changed afterwards.
+   * @param timestamp Time of the merge. The latest version now carries this time (unless it is before the time of
+   *                  that version).
+   * @return The latest version.
+   */
+  Version amend(ActivityNetwork network, long timestamp) {
+    Version v = versions[end - 1];
+    bytes -= v.estimateBytes();
+
+    ActivityNetwork previous = head, a = network.twin();
+    NetworkDelta d = NetworkDelta.between(head, a);
+    setHead(a, headBytes + d.estimateGrowth(true));
+    if (v.delta != null || v.spilledAt >= 0) {
+      v.delta = v.getDelta().then(d);
+      v.freeSpilled();
+    }
+    if (v.checkpoint != null) {
+      v.checkpoint = a;
+      v.checkpointBytes = headBytes;
+    }
+    v.timestamp = timestamps[end - 1] = Math.max(timestamp, v.timestamp);
+    release(previous);
+
+    bytes += v.estimateBytes();
+    return v;
+  }
+
+  /**
+   * Move the latest version of the network to our undone versions.
+   *
+   * @return The version that was undone. Null if there are no recorded versions.
+   */
+  Version undo() {
+    if (first == end) {
+      return null;
+    }
+
+    ActivityNetwork previous = head;
+    Version v = versions[--end];
+    versions[end] = null;
+    v.live = false;
+
+    // The oldest version has no version before it, so it keeps its whole network until it is redone.
+    if (first == end) {
+      bytes -= v.estimateBytes();
+      v.checkpoint = head;
+      v.checkpointBytes = headBytes;
+      bytes += v.estimateBytes();
+      setHead(null, 0);
+    } else {
+      Version w = versions[end - 1];
+      if (w.checkpoint != null) {
+        setHead(w.checkpoint, w.checkpointBytes);
+      } else {
+        NetworkDelta d = v.getDelta();
+        setHead(d.applyTo(head, false), headBytes + d.estimateGrowth(false));
+      }
+    }
+    undone.add(v);
+    release(previous);
+    return v;
+  }
+
+  /**
+   * Record the most recently undone version again, as the latest version.
+   *
+   * @return The new version that was recorded. Null if there are no undone versions.
+   */
+  Version redo() {
+    if (undone.isEmpty()) {
+      return null;
+    }
+
+    // The version is recorded as a new entry, so that the old entry stays discarded wherever it is still referenced.
+    ActivityNetwork previous = head;
+    Version u = undone.remove(undone.size() - 1);
+    if (u.checkpoint != null) {
+      setHead(u.checkpoint, u.checkpointBytes);
+    } else {
+      NetworkDelta d = u.getDelta();
+      setHead(d.applyTo(head, true), headBytes + d.estimateGrowth(true));
+    }
+    Version v = new Version(this, (first == end) ? null : u.delta, u.checkpoint, u.checkpointBytes, u.timestamp);
+    if (first < end) {
+      // The spilled delta now belongs to the new entry, so it is not freed with the old one.
+      v.spilledAt = u.spilledAt;
+      u.spilledAt = -1;
+    }
+    bytes += v.estimateBytes() - u.estimateBytes();
+    u.discard();
+    release(previous);
+    push(v);
+    return v;
+  }
+
+  /**
+   * Drop the oldest recorded version.
+   *
+   * @return The version that was dropped. Null if there are no recorded versions.
+   */
+  Version dropOldest() {
+    if (first == end) {
+      return null;
+    }
+
+    Version v = versions[first];
+    ActivityNetwork c = v.checkpoint, previous = head;
+    versions[first++] = null;
+    v.live = false;
+    bytes -= v.estimateBytes();
+    v.discard();
+
+    // The next version is now the oldest, and its changes no longer apply to any version.
+    if (first < end) {
+      Version w = versions[first];
+      bytes -= w.estimateBytes();
+      w.delta = null;
+      w.freeSpilled();
+      bytes += w.estimateBytes();
+    } else if (undone.isEmpty()) {
+      setHead(null, 0);
+      release(previous);
+    }
+    release(c);
+    return v;
+  }
+
+  /**
+   * Drop the checkpoint of the given recorded version. The version can still be reached through the deltas of the
+   * versions after it.
+   *
+   * @param v Version to drop the checkpoint of.
+   */
+  void dropCheckpoint(Version v) {
+    ActivityNetwork c = v.checkpoint;
+    bytes -= v.estimateBytes();
+    v.checkpoint = null;
+    v.checkpointBytes = 0;
+    bytes += v.estimateBytes();
+    release(c);
+  }
+
+  /**
+   * Discard every version of this history, recorded or undone.
+   */
+  void clear() {
+    for (int i = first; i < end; i++) {
+      if (versions[i].checkpoint != null) {
+        versions[i].checkpoint.release();
+      }
+      versions[i].live = false;
+      versions[i].discard();
+      versions[i] = null;
+    }
+    first = end = 0;
+    clearUndone();
+    ActivityNetwork previous = head;
+    setHead(null, 0);
+    release(previous);
+    bytes = 0;
+  }
+
+  /**
+   * Discard every undone version, so that none can be redone.
+   */
+  private void clearUndone() {
+    for (Version u : undone) {
+      ActivityNetwork c = u.checkpoint;
+      bytes -= u.estimateBytes();
+      u.discard();
+      release(c);
+    }
+    undone.clear();
+    if (first == end) {
+      ActivityNetwork previous = head;
+      setHead(null, 0);
+      release(previous);
+    }
+  }
+
+  /**
+   * Move the spilled deltas of every version of this history, recorded or undone, to the given spill, which is used for
+   * our older versions from now on. Deltas are not freed in our current spill, which **MUST** be closed once every
+   * history sharing it has moved. A delta that cannot be written to the new spill is kept in memory instead.
+   *
+   * @param to Spill to move our deltas to.
+   */
+  void moveTo(HistorySpill to) {
+    for (int i = first; i < end; i++) {
+      moveTo(versions[i], to);
+    }
+    for (Version u : undone) {
+      moveTo(u, to);
+    }
+    spill = to;
+  }
+
+  /**
+   * Move the spilled delta of the given version to the given spill.
+   *
+   * @param v  Version to move.
+   * @param to Spill to move the delta to.
+   */
+  private void moveTo(Version v, HistorySpill to) {
+    if (v.spilledAt >= 0) {
+      NetworkDelta d = spill.read(v.spilledAt);
+      v.spilledAt = to.write(d);
+      if (v.spilledAt < 0) {
+        v.delta = d;
+        bytes += d.estimateBytes();
+      }
+    }
+  }
+
+  /**
+   * Find the first recorded version recorded after the given time, by binary search.
+   *
+   * @param timestamp Time to search for.
+   * @return The position of the first version recorded after the given time. end if there is none.
+   */
+  private int firstAfter(long timestamp) {
+    int low = first, high = end;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamps[mid] <= timestamp) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Find the recorded version that was the latest one at the given time.
+   *
+   * @param timestamp Time to search for.
+   * @return The index of the version (0 being the oldest recorded version). -1 if every version was recorded after the
+   * given time.
+   */
+  int indexAt(long timestamp) {
+    return firstAfter(timestamp) - 1 - first;
+  }
+
+  /**
+   * Find the timestamps of the recorded versions recorded within the given time range.
+   *
+   * @param from Start of the time range, inclusive.
+   * @param to   End of the time range, inclusive.
+   * @return The timestamps of the versions recorded within the range, oldest first.
+   */
+  long[] timestampsBetween(long from, long to) {
+    int start = (from == Long.MIN_VALUE) ? first : firstAfter(from - 1);
+    return Arrays.copyOfRange(timestamps, start, Math.max(start, firstAfter(to)));
+  }
+
+  /**
+   * Rebuild the network of the recorded version with the given index. The deltas between the version and the nearest
+   * later checkpoint (or the latest network) are combined first, so that the network is only rebuilt once, in
+   * O(V + E + D) time for D changed nodes. Deltas that were spilled are read back.
+   *
+   * @param index Index of the version (0 being the oldest recorded version).
+   * @return The network of the version. It **MUST NOT** be changed: use a clone (see ActivityNetwork.twin) to make
+   * changes.
+   */
+  ActivityNetwork networkAt(int index) {
+    int i = first + index, k = i;
+    while (k < end - 1 && versions[k].checkpoint == null) {
+      k++;
+    }
+    ActivityNetwork a = (versions[k].checkpoint != null) ? versions[k].checkpoint : head;
+    if (k == i) {
+      return a;
+    }
+
+    HashMap<Long, ActivityNode> changes = new HashMap<>();
+    NetworkDelta d = null;
+    for (int j = k; j > i; j--) {
+      d = versions[j].getDelta();
+      d.revertInto(changes);
+    }
+    return a.withChanges(changes, d.getDeadlineBefore());
+  }
+
+  /**
+   * Accessor method for the latest recorded version.
+   *
+   * @return The latest version. Null if there are no recorded versions.
+   */
+  Version latest() {
+    return (first == end) ? null : versions[end - 1];
+  }
+
+  /**
+   * Accessor method for the network of the latest recorded version. It **MUST NOT** be changed: use a clone (see
+   * ActivityNetwork.twin) to make changes.
+   *
+   * @return The latest network. Null if there are no recorded versions.
+   */
+  ActivityNetwork latestNetwork() {
+    return (first == end) ? null : head;
+  }
+
+  /**
+   * Accessor method for the oldest recorded version.
+   *
+   * @return The oldest version. Null if there are no recorded versions.
+   */
+  Version oldest() {
+    return (first == end) ? null : versions[first];
+  }
+
+  /**
+   * Accessor method for the number of recorded versions.
+   *
+   * @return The number of recorded (not undone) versions.
+   */
+  int size() {
+    return end - first;
+  }
+
+  /**
+   * Check if this history holds no versions at all, recorded or undone.
+   *
+   * @return True if the history is empty. False otherwise.
+   */
+  boolean isEmpty() {
+    return first == end && undone.isEmpty();
+  }
+
+  /**
+   * Accessor method for the estimated number of bytes retained by this history. The head network is only counted if
+   * it is not also the checkpoint of the latest version (the only version whose checkpoint can be the head), so that
+   * the same network is never counted twice.
+   *
+   * @return The estimated size of every version, recorded or undone, and of the latest network, in bytes.
+   */
+  long getBytes() {
+    boolean headIsCheckpoint = first < end && versions[end - 1].checkpoint == head;
+    return bytes + ((head == null || headIsCheckpoint) ? 0 : headBytes);
+  }
+
+  /**
+   * Accessor method for the network ID.
+   *
+   * @return The ID of the network of this history.
+   */
+  long getNetworkId() {
+    return networkId;
+  }
+}
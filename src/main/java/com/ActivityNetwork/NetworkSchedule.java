@@ -0,0 +1,416 @@
+package com.ActivityNetwork;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The NetworkSchedule class, which holds the earliest and latest start and finish times of every activity in a
+ * network. All four times are computed together using one forward pass and one backward pass over the dependency
+ * graph, in O(V + E) time. The forward pass also records which dependency each node waits on, so the critical path (the
+ * longest path through the network) is found by following these back-pointers. When the expected time of a single
+ * node changes, the schedule is updated by only visiting the nodes whose times actually move.
+ */
+public final class NetworkSchedule {
+  /** Dependency graph of the network. Node indices of the graph are topological positions. */
+  private final NetworkGraph graph;
+
+  /** Node ID of each node, indexed by topological position. */
+  private final long[] nodeIds;
+
+  /** Start of the dependencies of each node in the graph (see NetworkGraph.getDependencyOffsets). */
+  private final int[] dependencyOffsets;
+
+  /** Indices of the dependencies of every node in the graph. */
+  private final int[] dependencies;
+
+  /** Start of the successors of each node in the graph (see NetworkGraph.getSuccessorOffsets). */
+  private final int[] successorOffsets;
+
+  /** Indices of the successors of every node in the graph. */
+  private final int[] successors;
+
+  /** Expected time of each node, indexed by topological position. */
+  private final double[] expectedTime;
+
+  /** Index of the dependency that finishes last for each node (-1 for nodes without dependencies). */
+  private final int[] criticalPredecessor;
+
+  /** Earliest start time of each node, indexed by topological position. */
+  private final double[] earliestStart;
+
+  /** Earliest finish time of each node, indexed by topological position. */
+  private final double[] earliestFinish;
+
+  /** Latest start time of each node, indexed by topological position. */
+  private final double[] latestStart;
+
+  /** Latest finish time of each node, indexed by topological position. */
+  private final double[] latestFinish;
+
+  /** Time in hours to complete every activity in the network (the largest earliest finish time). */
+  private double duration;
+
+  /** Index of the node that finishes last, i.e. the end of the critical path (-1 if the network is empty). */
+  private int criticalEnd;
+
+  /** Node IDs of the critical path, built on first use. */
+  private ArrayList<Long> criticalPath;
+
+  /** Slack of every node, computed on first use. */
+  private SlackReport slackReport;
+
+  /** Nodes queued by setExpectedTime, kept between calls so that an update does not allocate a set per node. */
+  private BitSet queued;
+
+  /**
+   * Constructor. Computes the schedule of the given nodes. The given list **MUST** be in topological order, i.e. every
+   * node appears after all of its dependencies. Dependencies that do not exist in the list are ignored.
+   *
+   * @param sortedNodes Nodes of the network, sorted by order of dependencies.
+   */
+  NetworkSchedule(List<ActivityNode> sortedNodes) {
+    this(new NetworkGraph(sortedNodes), sortedNodes.stream().mapToDouble(ActivityNode::getExpectedTime).toArray());
+  }
+
+  /**
+   * Constructor. Computes the schedule of the given graph. The node indices of the graph **MUST** be in topological
+   * order, i.e. every node comes after all of its dependencies.
+   *
+   * @param graph        Dependency graph of the network, sorted by order of dependencies.
+   * @param expectedTime Expected time of each node, indexed by node index. This array is not copied.
+   */
+  NetworkSchedule(NetworkGraph graph, double[] expectedTime) {
+    int n = graph.size();
+    this.graph = graph;
+    this.nodeIds = graph.getNodeIds();
+    this.dependencyOffsets = graph.getDependencyOffsets();
+    this.dependencies = graph.getDependencies();
+    this.successorOffsets = graph.getSuccessorOffsets();
+    this.successors = graph.getSuccessors();
+    this.expectedTime = expectedTime;
+    this.criticalPredecessor = new int[n];
+    this.earliestStart = new double[n];
+    this.earliestFinish = new double[n];
+    this.latestStart = new double[n];
+    this.latestFinish = new double[n];
+
+    // Forward pass. A node can start once all of its dependencies have finished. Remember the last one to finish.
+    for (int i = 0; i < n; i++) {
+      scheduleEarliest(i);
+    }
+    findCriticalEnd();
+
+    // Backward pass. A node must finish before any of its successors must start.
+    for (int i = n - 1; i >= 0; i--) {
+      scheduleLatest(i);
+    }
+  }
+
+  /**
+   * Copy constructor. The graph is shared with the given schedule, as it never changes. The times are copied, so that
+   * the given schedule is left as it is.
+   *
+   * @param s Schedule to copy.
+   */
+  private NetworkSchedule(NetworkSchedule s) {
+    this.graph = s.graph;
+    this.nodeIds = s.nodeIds;
+    this.dependencyOffsets = s.dependencyOffsets;
+    this.dependencies = s.dependencies;
+    this.successorOffsets = s.successorOffsets;
+    this.successors = s.successors;
+    this.expectedTime = s.expectedTime.clone();
+    this.criticalPredecessor = s.criticalPredecessor.clone();
+    this.earliestStart = s.earliestStart.clone();
+    this.earliestFinish = s.earliestFinish.clone();
+    this.latestStart = s.latestStart.clone();
+    this.latestFinish = s.latestFinish.clone();
+    this.duration = s.duration;
+    this.criticalEnd = s.criticalEnd;
+  }
+
+  /**
+   * Compute the earliest start and finish times of the given node from the earliest finish times of its dependencies.
+   *
+   * @param i Index of the node to schedule.
+   * @return True if the earliest finish time of the node has changed. False otherwise.
+   */
+  private boolean scheduleEarliest(int i) {
+    double start = 0;
+    int predecessor = -1;
+
+    for (int k = dependencyOffsets[i]; k < dependencyOffsets[i + 1]; k++) {
+      int j = dependencies[k];
+      if (predecessor < 0 || earliestFinish[j] > start) {
+        start = earliestFinish[j];
+        predecessor = j;
+      }
+    }
+
+    boolean changed = earliestFinish[i] != start + expectedTime[i];
+    earliestStart[i] = start;
+    earliestFinish[i] = start + expectedTime[i];
+    criticalPredecessor[i] = predecessor;
+    return changed;
+  }
+
+  /**
+   * Compute the latest start and finish times of the given node from the latest start times of its successors.
+   *
+   * @param i Index of the node to schedule.
+   * @return True if the latest start time of the node has changed. False otherwise.
+   */
+  private boolean scheduleLatest(int i) {
+    double finish = duration;
+
+    for (int k = successorOffsets[i]; k < successorOffsets[i + 1]; k++) {
+      finish = Math.min(finish, latestStart[successors[k]]);
+    }
+
+    boolean changed = latestStart[i] != finish - expectedTime[i];
+    latestFinish[i] = finish;
+    latestStart[i] = finish - expectedTime[i];
+    return changed;
+  }
+
+  /**
+   * Find the first node with the largest earliest finish time, which is the end of the critical path.
+   */
+  private void findCriticalEnd() {
+    duration = 0;
+    criticalEnd = -1;
+
+    for (int i = 0; i < nodeIds.length; i++) {
+      if (criticalEnd < 0 || earliestFinish[i] > duration) {
+        duration = earliestFinish[i];
+        criticalEnd = i;
+      }
+    }
+  }
+
+  /**
+   * Compute the schedule of the network after the expected time of one node has changed (see setExpectedTime). Every
+   * array of this schedule is copied first, so this takes O(V) time: use setExpectedTime when the schedule is not held
+   * by anyone else.
+   *
+   * @param nodeId       ID of the node whose expected time has changed.
+   * @param expectedTime The new expected time of the node.
+   * @return A new schedule for the changed network. This schedule is left as it is.
+   */
+  NetworkSchedule withExpectedTime(long nodeId, double expectedTime) {
+    NetworkSchedule s = new NetworkSchedule(this);
+    s.setExpectedTime(nodeId, expectedTime);
+    return s;
+  }
+
+  /**
+   * Update this schedule in place after the expected time of one node has changed. Only the successors of the node
+   * (forward) and its dependencies (backward) are visited, in topological order, and each pass stops at the nodes whose
+   * times do not change, so the cost follows the part of the network that moves. If the network duration changes,
+   * every latest time moves, so the whole backward pass is repeated instead. Anyone holding this schedule sees the
+   * change, so it **MUST NOT** be shared (see ActivityNetwork.computeSchedule).
+   *
+   * @param nodeId       ID of the node whose expected time has changed.
+   * @param expectedTime The new expected time of the node.
+   */
+  void setExpectedTime(long nodeId, double expectedTime) {
+    int i = index(nodeId);
+    double previousDuration = duration;
+    this.expectedTime[i] = expectedTime;
+    criticalPath = null;
+    slackReport = null;
+
+    // Forward pass, from the changed node to the successors whose earliest finish time changes. Each node is queued
+    // once, and leaves the queued set once it is visited, so the set is empty again after each pass.
+    if (queued == null) {
+      queued = new BitSet(nodeIds.length);
+    }
+    IntHeap pending = new IntHeap(16, false);
+    pending.add(i);
+    boolean endDecreased = false;
+    while (!pending.isEmpty()) {
+      int j = pending.poll();
+      queued.clear(j);
+      if (scheduleEarliest(j)) {
+        for (int k = successorOffsets[j]; k < successorOffsets[j + 1]; k++) {
+          if (!queued.get(successors[k])) {
+            queued.set(successors[k]);
+            pending.add(successors[k]);
+          }
+        }
+
+        if (earliestFinish[j] > duration || (earliestFinish[j] == duration && j < criticalEnd)) {
+          duration = earliestFinish[j];
+          criticalEnd = j;
+        } else if (j == criticalEnd) {
+          endDecreased = true;
+        }
+      }
+    }
+    if (endDecreased) {
+      findCriticalEnd();
+    }
+
+    // Backward pass, from the changed node to the dependencies whose latest start time changes.
+    if (duration != previousDuration) {
+      for (int j = nodeIds.length - 1; j >= 0; j--) {
+        scheduleLatest(j);
+      }
+      return;
+    }
+    pending = new IntHeap(16, true);
+    pending.add(i);
+    while (!pending.isEmpty()) {
+      int j = pending.poll();
+      queued.clear(j);
+      if (scheduleLatest(j)) {
+        for (int k = dependencyOffsets[j]; k < dependencyOffsets[j + 1]; k++) {
+          if (!queued.get(dependencies[k])) {
+            queued.set(dependencies[k]);
+            pending.add(dependencies[k]);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Find the index of the node with the given ID. The user here **MUST** check for node existence before using this.
+   *
+   * @param nodeId ID of the node to find the index of.
+   * @return Index of the node in the schedule arrays.
+   */
+  private int index(long nodeId) {
+    int i = graph.indexOf(nodeId);
+    if (i < 0) {
+      throw new java.lang.RuntimeException("Node does not exist in network.");
+    }
+    return i;
+  }
+
+  /**
+   * Check if the given node was part of the network when this schedule was computed.
+   *
+   * @param nodeId ID of the node to check.
+   * @return True if the node is in this schedule. False otherwise.
+   */
+  public boolean containsNode(long nodeId) {
+    return graph.indexOf(nodeId) >= 0;
+  }
+
+  /**
+   * Find the index of the node with the given ID in the arrays of this schedule and of its slack report. The user here
+   * **MUST** check for node existence before using this.
+   *
+   * @param nodeId ID of the node to find the index of.
+   * @return Topological position of the node.
+   */
+  int indexOf(long nodeId) {
+    return index(nodeId);
+  }
+
+  /**
+   * Compute the slack of every node at once. Each node looks at its dependencies and successors once, so the report is
+   * built in O(V + E) time. The report is only computed once.
+   *
+   * @return The total, free, safety, and independent slack of every node.
+   */
+  public SlackReport getSlackReport() {
+    if (slackReport == null) {
+      int n = nodeIds.length;
+      double[] totalSlack = new double[n], freeSlack = new double[n], safetySlack = new double[n],
+          independentSlack = new double[n];
+
+      for (int i = 0; i < n; i++) {
+        // The latest of our dependencies' latest finish times. Nodes without dependencies can start at time 0.
+        double latestPredecessorFinish = 0;
+        for (int k = dependencyOffsets[i]; k < dependencyOffsets[i + 1]; k++) {
+          latestPredecessorFinish = Math.max(latestPredecessorFinish, latestFinish[dependencies[k]]);
+        }
+
+        // The earliest of our successors' earliest start times. Nodes without successors can finish with the network.
+        double earliestSuccessorStart = (successorOffsets[i] < successorOffsets[i + 1]) ? Double.MAX_VALUE : duration;
+        for (int k = successorOffsets[i]; k < successorOffsets[i + 1]; k++) {
+          earliestSuccessorStart = Math.min(earliestSuccessorStart, earliestStart[successors[k]]);
+        }
+
+        totalSlack[i] = latestFinish[i] - earliestFinish[i];
+        freeSlack[i] = earliestSuccessorStart - earliestFinish[i];
+        safetySlack[i] = latestStart[i] - latestPredecessorFinish;
+        independentSlack[i] = Math.max(0, earliestSuccessorStart - latestPredecessorFinish - expectedTime[i]);
+      }
+      slackReport = new SlackReport(nodeIds, totalSlack, freeSlack, safetySlack, independentSlack);
+    }
+
+    return slackReport;
+  }
+
+  /**
+   * Accessor method for the earliest start time (ES) of a node.
+   *
+   * @param nodeId ID of the node to get the ES of.
+   * @return The earliest start time of the given node.
+   */
+  public double getEarliestStartTime(long nodeId) {
+    return earliestStart[index(nodeId)];
+  }
+
+  /**
+   * Accessor method for the earliest finish time (EF) of a node.
+   *
+   * @param nodeId ID of the node to get the EF of.
+   * @return The earliest finish time of the given node.
+   */
+  public double getEarliestFinishTime(long nodeId) {
+    return earliestFinish[index(nodeId)];
+  }
+
+  /**
+   * Accessor method for the latest start time (LS) of a node.
+   *
+   * @param nodeId ID of the node to get the LS of.
+   * @return The latest start time of the given node.
+   */
+  public double getLatestStartTime(long nodeId) {
+    return latestStart[index(nodeId)];
+  }
+
+  /**
+   * Accessor method for the latest finish time (LF) of a node.
+   *
+   * @param nodeId ID of the node to get the LF of.
+   * @return The latest finish time of the given node.
+   */
+  public double getLatestFinishTime(long nodeId) {
+    return latestFinish[index(nodeId)];
+  }
+
+  /**
+   * Walk the back-pointers from the last node to finish to obtain the critical path. The path is only walked once.
+   *
+   * @return A copy of the node IDs of the critical path, in order of dependencies (the first node to start is first).
+   */
+  public ArrayList<Long> getCriticalPath() {
+    if (criticalPath == null) {
+      criticalPath = new ArrayList<>();
+      for (int i = criticalEnd; i >= 0; i = criticalPredecessor[i]) {
+        criticalPath.add(nodeIds[i]);
+      }
+      Collections.reverse(criticalPath);
+    }
+
+    return new ArrayList<>(criticalPath);
+  }
+
+  /**
+   * Accessor method for the total duration of the network, the time at which the last activity finishes. This is
+   * also the length (sum of expected times) of the critical path.
+   *
+   * @return The time in hours to complete the network.
+   */
+  public double getDuration() {
+    return duration;
+  }
+}
@@ -1,8 +1,8 @@
 package com.ActivityNetwork;
 
+import com.BaseInterface.BackendClient;
 import com.BaseInterface.UserAccount;
 import org.apache.http.NameValuePair;
-import org.apache.http.client.HttpClient;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.message.BasicNameValuePair;
@@ -11,7 +11,6 @@ import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
-import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.HttpResponse;
 
 import java.io.BufferedReader;
@@ -19,8 +18,8 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * The NetworkStorage class, which contains a set of methods to interact with the backend.
@@ -37,20 +36,20 @@ public final class NetworkStorage {
     JSONArray nodeList = new JSONArray();
     JSONObject net = new JSONObject();
 
-    for (ActivityNode n : a.getNodeList()) {
+    // Read the nodes through their views, so that a network backed by a store (see NodeStore) is not unpacked.
+    for (ActivityNodeView n : a.getNodes()) {
       JSONObject node = new JSONObject();
       node.put("NodeID", n.getNodeId());
       node.put("NodeName", n.getName());
       node.put("Description", n.getDescription());
 
-      // Times are accessed as an array.
-      double times[] = n.getTimes();
-      node.put("OptimisticTime", times[0]);
-      node.put("NormalTime", times[1]);
-      node.put("PessimisticTime", times[2]);
+      node.put("OptimisticTime", n.getOptimisticTime());
+      node.put("NormalTime", n.getNormalTime());
+      node.put("PessimisticTime", n.getPessimisticTime());
 
       // We store our dependency list as a comma-separated list. Store the nodes in the main list.
-      node.put("DependencyNodeID", n.getDependencies().toString().replaceAll("[\\[\\]]", ""));
+      node.put("DependencyNodeID", n.getDependencyIds().stream().map(String::valueOf)
+          .collect(Collectors.joining(", ")));
       nodeList.add(node);
     }
 
@@ -62,8 +61,26 @@ public final class NetworkStorage {
   }
 
   /**
-   * Import the given network from a JSON string to an ActivityNetwork instance. If our string cannot be parsed, return
-   * an empty network.
+   * Read the dependencies of the given stored node, which are stored as a comma separated string.
+   *
+   * @param node Stored node, as a JSON array.
+   * @return The IDs of the nodes the given node depends on.
+   */
+  private static DependencySet dependenciesFromJSON(JSONArray node) {
+    DependencySet dependencies = new DependencySet();
+    for (String s : node.get(6).toString().split(",")) {
+      if (!s.equals("0")) {
+        dependencies.add(Long.parseLong(s));
+      }
+    }
+    return dependencies;
+  }
+
+  /**
+   * Import the given network from a JSON string to an ActivityNetwork instance. The nodes are read into a NodeStore
+   * that backs the network, so no node object is built until the network is changed. If the stored nodes do not form a
+   * valid network (a repeated node ID or name, or a cycle), the nodes are inserted one at a time instead, and the nodes
+   * that cannot be inserted are skipped. If our string cannot be parsed, return an empty network.
    *
    * @param netString     JSON string containing our network.
    * @param projectID     Project ID to attach to this network.
@@ -77,33 +94,29 @@ public final class NetworkStorage {
 
     try {
       JSONObject jsonNet = (JSONObject) jsonParser.parse(netString);
-      ActivityNetwork a = new ActivityNetwork(projectID, projectName);
-      a.setHoursDeadline(hoursDeadline);
 
-      // Obtain and iterate through our node list.
+      // Obtain and iterate through our node list. All nodes are checked and sorted at once.
       JSONArray nodeList = (JSONArray) jsonNet.get("Nodes");
+      NodeStore store = new NodeStore(nodeList.size());
       for (Object nodeObject : nodeList.toArray()) {
         JSONArray node = (JSONArray) nodeObject;
-
-        // Build our node without the dependencies.
-        ActivityNode n = new ActivityNode(Long.parseLong(node.get(1).toString()), node.get(2).toString(),
-            node.get(7).toString(), Double.parseDouble(node.get(3).toString()),
-            Double.parseDouble(node.get(4).toString()), Double.parseDouble(node.get(5).toString()));
-
-        // Our dependencies are stored as a comma separated string.
-        HashSet<Long> dependencies = new HashSet<>();
-        for (String s : node.get(6).toString().split(",")) {
-          if (!s.equals("0")) {
-            dependencies.add(Long.parseLong(s));
-          }
+        DependencySet dependencies = dependenciesFromJSON(node);
+        long[] dependencyIds = new long[dependencies.size()];
+        for (int k = 0; k < dependencyIds.length; k++) {
+          dependencyIds[k] = dependencies.get(k);
         }
 
-        // Insert into node.
-        n.setDependencies(dependencies);
-        a.insertNode(n);
+        // Add our node. A repeated node ID makes the nodes invalid as a whole.
+        if (!store.addNode(Long.parseLong(node.get(1).toString()), node.get(2).toString(), node.get(7).toString(),
+            Double.parseDouble(node.get(3).toString()), Double.parseDouble(node.get(4).toString()),
+            Double.parseDouble(node.get(5).toString()), dependencyIds)) {
+          return importNodeByNode(nodeList, projectID, hoursDeadline, projectName);
+        }
       }
 
-      return a;
+      // A negative deadline is dropped.
+      ActivityNetwork a = store.toNetwork(projectID, projectName, Math.max(0, hoursDeadline));
+      return (a != null) ? a : importNodeByNode(nodeList, projectID, hoursDeadline, projectName);
 
     } catch (ParseException e) {
       // We return an empty network in the event we cannot parse our string.
@@ -112,22 +125,51 @@ public final class NetworkStorage {
   }
 
   /**
-   * Perform a POST with the open HTTP client and input, and return the response. Following the resource below:
+   * Import the given stored nodes one at a time, in order. A node that is not unique, or that would form a cycle, is
+   * skipped (see ActivityNetwork.insertNode), so that the rest of the network can still be loaded.
+   *
+   * @param nodeList      Stored nodes, as a JSON array.
+   * @param projectID     Project ID to attach to this network.
+   * @param hoursDeadline Deadline attached to the network to import.
+   * @param projectName   Project name to attach to this network.
+   * @return An ActivityNetwork instance holding every node that could be inserted.
+   */
+  private static ActivityNetwork importNodeByNode(JSONArray nodeList, long projectID, double hoursDeadline,
+                                                  String projectName) {
+    ActivityNetwork a = new ActivityNetwork(projectID, projectName);
+    a.setHoursDeadline(hoursDeadline);
+
+    for (Object nodeObject : nodeList.toArray()) {
+      JSONArray node = (JSONArray) nodeObject;
+
+      // Build our node with its dependencies, and insert it.
+      ActivityNode n = new ActivityNode(Long.parseLong(node.get(1).toString()), node.get(2).toString(),
+          node.get(7).toString(), Double.parseDouble(node.get(3).toString()),
+          Double.parseDouble(node.get(4).toString()), Double.parseDouble(node.get(5).toString()));
+      n.setDependencies(dependenciesFromJSON(node));
+      a.insertNode(n);
+    }
+    return a;
+  }
+
+  /**
+   * Perform a POST with the shared HTTP client (see BackendClient) and input, and return the response. The connection
+   * is released afterwards, so that the next call can reuse it. Following the resource below:
    * https://www.mkyong.com/webservices/jax-rs/restful-java-client-with-apache-httpclient/
    *
    * @param jsonParser Open JSON Parser instance.
-   * @param h          Open HTTP client, used to POST our input.
    * @param i          Input list of name-value pairs to POST.
    * @param f          PHP file to use with our POST request.
    * @return A JSON object containing the response of our POST.
    */
-  private static JSONObject postAndGetResponse(JSONParser jsonParser, HttpClient h, List<NameValuePair> i, String f) {
+  private static JSONObject postAndGetResponse(JSONParser jsonParser, List<NameValuePair> i, String f) {
+    HttpResponse response = null;
     try {
       HttpPost postRequest = new HttpPost(f);
       postRequest.setEntity(new UrlEncodedFormEntity(i));
 
       // POST our token, username, and desired name. Wait for our response.
-      HttpResponse response = h.execute(postRequest);
+      response = BackendClient.getClient().execute(postRequest);
       if (response.getStatusLine().getStatusCode() != 200) {
         throw new RuntimeException("Failed : HTTP error code : " + response.getStatusLine().getStatusCode());
       }
@@ -140,6 +182,9 @@ public final class NetworkStorage {
       JSONObject j = new JSONObject();
       j.put("ErrorMessage", e.toString());
       return j;
+
+    } finally {
+      BackendClient.release(response);
     }
   }
 
@@ -154,15 +199,13 @@ public final class NetworkStorage {
    */
   static long createNetwork(String token, String u, String networkName) {
     JSONParser jsonParser = new JSONParser();
-    DefaultHttpClient httpClient = new DefaultHttpClient();
 
     // Collect our parameters to POST. We always start with a deadline of 0 hours.
     List<NameValuePair> i = new ArrayList<>(Arrays.asList(new BasicNameValuePair("username", u),
         new BasicNameValuePair("auth", token), new BasicNameValuePair("projectname", networkName),
         new BasicNameValuePair("projectdeadline", "0")));
 
-    JSONObject jsonReturned = postAndGetResponse(jsonParser, httpClient, i, "http://localhost/PHPWebServer/create.php");
-    httpClient.getConnectionManager().shutdown();
+    JSONObject jsonReturned = postAndGetResponse(jsonParser, i, "http://localhost/PHPWebServer/create.php");
 
     // If we have an error, return a network ID of 0.
     return jsonReturned.get("Error").toString().equalsIgnoreCase("false") ? 0 :
@@ -180,14 +223,12 @@ public final class NetworkStorage {
    */
   static String storeNetwork(String token, String u, String projectsJSON, ActivityNetwork a) {
     JSONParser jsonParser = new JSONParser();
-    DefaultHttpClient httpClient = new DefaultHttpClient();
 
     // Collect our parameters to POST.
     List<NameValuePair> i = new ArrayList<>(Arrays.asList(new BasicNameValuePair("username", u),
         new BasicNameValuePair("auth", token), new BasicNameValuePair("json", exportNetworkAsJSON(a))));
 
-    JSONObject jsonReturned = postAndGetResponse(jsonParser, httpClient, i, "http://localhost/PHPWebServer/save.php");
-    httpClient.getConnectionManager().shutdown();
+    JSONObject jsonReturned = postAndGetResponse(jsonParser, i, "http://localhost/PHPWebServer/save.php");
 
     // If we have an error, return an empty string to indicate that we were not able to save the network.
     return (jsonReturned.get("Error").toString().equalsIgnoreCase("false")) ? "" :
@@ -205,14 +246,12 @@ public final class NetworkStorage {
    */
   static String deleteNetwork(String token, String u, String projectsJSON, long networkId) {
     JSONParser jsonParser = new JSONParser();
-    DefaultHttpClient httpClient = new DefaultHttpClient();
 
     // Collect our parameters to POST.
     List<NameValuePair> i = new ArrayList<>(Arrays.asList(new BasicNameValuePair("username", u),
         new BasicNameValuePair("auth", token), new BasicNameValuePair("projectid", Long.toString(networkId))));
 
-    JSONObject jsonReturned = postAndGetResponse(jsonParser, httpClient, i, "http://localhost/PHPWebServer/delete.php");
-    httpClient.getConnectionManager().shutdown();
+    JSONObject jsonReturned = postAndGetResponse(jsonParser, i, "http://localhost/PHPWebServer/delete.php");
 
     // If we have an error, return an empty string to indicate that we were not able to delete the network.
     return (jsonReturned.get("Error").toString().equalsIgnoreCase("false")) ? "" :
@@ -238,18 +277,15 @@ public final class NetworkStorage {
     // Find the index of our specific project.
     int j = UserAccount.idsFromProjectJSON(projectsJSON).indexOf(networkId);
     JSONParser jsonParser = new JSONParser();
-    DefaultHttpClient httpClient = new DefaultHttpClient();
 
     // Collect our parameters to POST.
     List<NameValuePair> i = new ArrayList<>(Arrays.asList(new BasicNameValuePair("username", u),
         new BasicNameValuePair("auth", token), new BasicNameValuePair("projectid", Long.toString(networkId))));
 
     try {
-      JSONObject jsonReturned = postAndGetResponse(jsonParser, httpClient, i, "http://localhost/PHPWebServer/load.php");
+      JSONObject jsonReturned = postAndGetResponse(jsonParser, i, "http://localhost/PHPWebServer/load.php");
       JSONObject errorMessage = (JSONObject) jsonParser.parse(jsonReturned.get("ErrorJSON").toString());
 
-      httpClient.getConnectionManager().shutdown();
-
       // If we have an error, indicate that we were not able to retrieve the network.
       return errorMessage.get("Error").toString().equalsIgnoreCase("false") ? new ActivityNetwork(0, "Bad") :
           importNetworkAsJSON(jsonReturned.get("NodesJSON").toString(), networkId,
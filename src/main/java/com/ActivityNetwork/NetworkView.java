@@ -0,0 +1,220 @@
+package com.ActivityNetwork;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The NetworkView class, a read-only view of the latest network of a history (see NetworkController.viewNetwork).
+ * The view reads the network kept by the history directly, so taking one copies nothing and registers no clone. Since
+ * the history stops holding that network once the network is changed, undone or redone, the view is only valid until
+ * then: afterwards, every method throws an IllegalStateException instead of showing a network that may have changed.
+ */
+final class NetworkView implements ActivityNetworkView {
+  /** History the viewed network belongs to. Null if the view is of a network outside of any history. */
+  private final NetworkHistory history;
+
+  /** The viewed network. It is never changed through this view. */
+  private final ActivityNetwork network;
+
+  /**
+   * Constructor.
+   *
+   * @param history History the network belongs to, or null.
+   * @param network The latest network of the history (or any network no one changes, if there is no history).
+   */
+  NetworkView(NetworkHistory history, ActivityNetwork network) {
+    this.history = history;
+    this.network = network;
+  }
+
+  /**
+   * Access the viewed network, making sure it is still the latest network of its history.
+   *
+   * @return The viewed network.
+   */
+  private ActivityNetwork network() {
+    if (history != null && history.latestNetwork() != network) {
+      throw new IllegalStateException("Network view is out of date.");
+    }
+    return network;
+  }
+
+  /**
+   * Accessor method for the network ID.
+   *
+   * @return The network ID.
+   */
+  @Override
+  public long getNetworkId() {
+    return network().getNetworkId();
+  }
+
+  /**
+   * Accessor method for the network name.
+   *
+   * @return The name assigned to this network.
+   */
+  @Override
+  public String getNetworkName() {
+    return network().getNetworkName();
+  }
+
+  /**
+   * Accessor method for the network deadline.
+   *
+   * @return The network deadline.
+   */
+  @Override
+  public double getHoursDeadline() {
+    return network().getHoursDeadline();
+  }
+
+  /**
+   * Accessor method for the network version, the number of changes made to the nodes of this network.
+   *
+   * @return The network version.
+   */
+  @Override
+  public long getVersion() {
+    return network().getVersion();
+  }
+
+  /**
+   * Accessor method for the nodes, without copying them.
+   *
+   * @return An unmodifiable view of the nodes, in their current order (every node comes after its dependencies).
+   */
+  @Override
+  public List<ActivityNodeView> getNodes() {
+    return network().getNodes();
+  }
+
+  /**
+   * Return a view of the node with the given ID, without copying it.
+   *
+   * @param nodeId ID of the node to view.
+   * @return A view of the node. Null if the node does not exist.
+   */
+  @Override
+  public ActivityNodeView viewNode(long nodeId) {
+    return network().viewNode(nodeId);
+  }
+
+  /**
+   * Check if a given node is in the network using the node's name.
+   *
+   * @param nodeName Name of the node to determine existence of.
+   * @return True if the node exists in the network. False otherwise.
+   */
+  @Override
+  public boolean isNodeInNetwork(String nodeName) {
+    return network().isNodeInNetwork(nodeName);
+  }
+
+  /**
+   * Get the node ID associated with the node of the given name.
+   *
+   * @param nodeName Name of the node to search for.
+   * @return -1 if a node does not exist with that name. Otherwise, the node ID of the node with the given name.
+   */
+  @Override
+  public long nodeIdFromName(String nodeName) {
+    return network().nodeIdFromName(nodeName);
+  }
+
+  /**
+   * Get the node name associated with the node of the given ID.
+   *
+   * @param nodeID ID of the node to search for.
+   * @return Empty string if a node does not exist with that ID. Otherwise, the name of the node with the given ID.
+   */
+  @Override
+  public String nodeNameFromId(long nodeID) {
+    return network().nodeNameFromId(nodeID);
+  }
+
+  /**
+   * Check if the node with the first ID must finish before the node with the second ID can start.
+   *
+   * @param upstreamId   ID of the node that may be depended on.
+   * @param downstreamId ID of the node that may depend on the other node.
+   * @return True if both nodes exist and the second node depends on the first one. False otherwise.
+   */
+  @Override
+  public boolean isUpstream(long upstreamId, long downstreamId) {
+    return network().isUpstream(upstreamId, downstreamId);
+  }
+
+  /**
+   * Compute the earliest and latest start and finish times of every node in the network.
+   *
+   * @return The schedule of the network.
+   */
+  @Override
+  public NetworkSchedule computeSchedule() {
+    return network().computeSchedule();
+  }
+
+  /**
+   * Compute the sum of the critical path times. This represents the minimum time a project requires to completion.
+   *
+   * @return The sum of the critical path times in hours.
+   */
+  @Override
+  public double computeCriticalPathTime() {
+    return network().computeCriticalPathTime();
+  }
+
+  /**
+   * Compute the critical path of the network.
+   *
+   * @return The node IDs of the critical path. The first node to start is first.
+   */
+  @Override
+  public ArrayList<Long> computeCriticalPath() {
+    return network().computeCriticalPath();
+  }
+
+  /**
+   * Compute the total, free, safety, and independent slack of every node in the network at once.
+   *
+   * @return The slack of every node.
+   */
+  @Override
+  public SlackReport computeSlackReport() {
+    return network().computeSlackReport();
+  }
+
+  /**
+   * Compute the total slack of the node with the given ID, which **MUST** exist.
+   *
+   * @param nodeId ID of the node to compute the total slack for.
+   * @return The total slack of the node with the given ID.
+   */
+  @Override
+  public double computeTotalSlack(long nodeId) {
+    return network().computeTotalSlack(nodeId);
+  }
+
+  /**
+   * Compute the safety slack of the node with the given ID, which **MUST** exist.
+   *
+   * @param nodeId ID of the node to compute the safety slack for.
+   * @return The safety slack of the node with the given ID.
+   */
+  @Override
+  public double computeSafetySlack(long nodeId) {
+    return network().computeSafetySlack(nodeId);
+  }
+
+  /**
+   * Compute the free slack of the node with the given ID, which **MUST** exist.
+   *
+   * @param nodeId ID of the node to compute the free slack for.
+   * @return The free slack of the node with the given ID.
+   */
+  @Override
+  public double computeFreeSlack(long nodeId) {
+    return network().computeFreeSlack(nodeId);
+  }
+}
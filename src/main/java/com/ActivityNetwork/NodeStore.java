@@ -0,0 +1,499 @@
+package com.ActivityNetwork;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The NodeStore class, a compact store for networks that are too large to hold as ActivityNode objects. The numeric
+ * fields of every node are kept in fixed-size records, the dependencies of every node in one array of IDs, and the
+ * names and descriptions in one UTF-8 string arena. All three live in direct (off-heap) buffers, so the only per-node
+ * cost on the heap is the entry of the node in the ID index. Nodes are appended in any order, and the store is
+ * scheduled without ever building a node object. A store can back an ActivityNetwork (see toNetwork), which answers
+ * reads and schedules straight from the store, and only builds node objects once one of its nodes is changed.
+ */
+public final class NodeStore {
+  /** Size in bytes of the record of a node. */
+  private static final int RECORD_BYTES = 60;
+
+  /** Offsets of each field in the record of a node. */
+  private static final int NODE_ID = 0, OPTIMISTIC_TIME = 8, NORMAL_TIME = 16, PESSIMISTIC_TIME = 24,
+      EXPECTED_TIME = 32, DEPENDENCY_START = 40, DEPENDENCY_COUNT = 44, TEXT_START = 48, NAME_LENGTH = 52,
+      DESCRIPTION_LENGTH = 56;
+
+  /** Record of each node, in order of insertion. */
+  private ByteBuffer records;
+
+  /** Node IDs of the dependencies of every node, each node's dependencies following those of the node before it. */
+  private ByteBuffer dependencyIds;
+
+  /** Name and description of every node in UTF-8, each name directly followed by its description. */
+  private ByteBuffer text;
+
+  /** Map of node IDs to their position in the store. */
+  private final LongIndex indexOf;
+
+  /** Number of nodes in this store. */
+  private int size;
+
+  /** Number of dependencies in this store. */
+  private int dependencyCount;
+
+  /** True once this store backs a network (see toNetwork). Nodes can no longer be added or changed then. */
+  private boolean sealed;
+
+  /**
+   * Allocate a direct buffer of the given size.
+   *
+   * @param bytes Size of the buffer in bytes.
+   * @return The new buffer, in native byte order.
+   */
+  private static ByteBuffer allocate(long bytes) {
+    if (bytes > Integer.MAX_VALUE) {
+      throw new java.lang.RuntimeException("Node store is full.");
+    }
+    return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * Make sure the given buffer can hold the given number of bytes, by moving it to a buffer twice as large if needed.
+   *
+   * @param buffer Buffer to check. Everything before its position is kept.
+   * @param needed Number of bytes the buffer must be able to hold.
+   * @return The given buffer, or a larger buffer with the same content.
+   */
+  private static ByteBuffer ensureCapacity(ByteBuffer buffer, long needed) {
+    if (needed <= buffer.capacity()) {
+      return buffer;
+    } else if (needed > Integer.MAX_VALUE) {
+      throw new java.lang.RuntimeException("Node store is full.");
+    }
+
+    ByteBuffer b = allocate(Math.min(Integer.MAX_VALUE, Math.max(needed, 2L * buffer.capacity())));
+    ByteBuffer old = buffer.duplicate();
+    old.flip();
+    b.put(old);
+    return b;
+  }
+
+  /**
+   * Compute the expected time of an activity, the same way ActivityNode does.
+   *
+   * @param optimisticTime  Optimistic time to activity completion in hours.
+   * @param normalTime      Normal time to activity completion in hours.
+   * @param pessimisticTime Pessimistic time to activity completion in hours.
+   * @return The expected time to activity completion in hours.
+   */
+  private static double computeExpectedTime(double optimisticTime, double normalTime, double pessimisticTime) {
+    return (optimisticTime + 4 * normalTime + pessimisticTime) / 6.0;
+  }
+
+  /**
+   * Read a UTF-8 string from our string arena.
+   *
+   * @param start  Position of the first byte of the string.
+   * @param length Number of bytes of the string.
+   * @return The string.
+   */
+  private String readText(int start, int length) {
+    byte[] b = new byte[length];
+    ByteBuffer t = text.duplicate();
+    t.position(start);
+    t.get(b);
+    return new String(b, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Constructor. Creates an empty store with room for the given number of nodes, which grows as nodes are added.
+   *
+   * @param capacity Number of nodes the store can hold before it has to grow.
+   */
+  public NodeStore(int capacity) {
+    capacity = Math.max(1, capacity);
+    this.records = allocate((long) RECORD_BYTES * capacity);
+    this.dependencyIds = allocate(8L * capacity);
+    this.text = allocate(16L * capacity);
+    this.indexOf = new LongIndex(capacity);
+    this.size = 0;
+    this.dependencyCount = 0;
+    this.sealed = false;
+  }
+
+  /**
+   * Create a store holding a copy of every node of the given network.
+   *
+   * @param network Network to copy.
+   * @return A store holding the nodes of the network, in their current order.
+   */
+  public static NodeStore of(ActivityNetwork network) {
+    ArrayList<ActivityNode> nodes = network.sortedNodes();
+    NodeStore s = new NodeStore(nodes.size());
+    for (ActivityNode n : nodes) {
+      s.addNode(n);
+    }
+    return s;
+  }
+
+  /**
+   * Append a node to this store. Dependencies do not have to be in the store (yet), and dependencies that are never
+   * added are ignored when scheduling, as they are in a network. Names are only checked for uniqueness once the store
+   * is turned into a network.
+   *
+   * @param nodeId          Unique identifier for the node.
+   * @param name            Name associated with the activity.
+   * @param description     Description associated with the activity.
+   * @param optimisticTime  Optimistic time to activity completion in hours.
+   * @param normalTime      Normal time to activity completion in hours.
+   * @param pessimisticTime Pessimistic time to activity completion in hours.
+   * @param dependencies    IDs of the nodes this activity depends on.
+   * @return True if the node was added. False if a node with the same ID is already in this store.
+   * @throws IllegalStateException If this store already backs a network.
+   */
+  public boolean addNode(long nodeId, String name, String description, double optimisticTime, double normalTime,
+                         double pessimisticTime, long[] dependencies) {
+    checkNotSealed();
+    if (indexOf.get(nodeId) != LongIndex.ABSENT) {
+      return false;
+    }
+
+    byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+    byte[] descriptionBytes = description.getBytes(StandardCharsets.UTF_8);
+    int textStart = text.position();
+    text = ensureCapacity(text, (long) textStart + nameBytes.length + descriptionBytes.length);
+    text.put(nameBytes).put(descriptionBytes);
+
+    dependencyIds = ensureCapacity(dependencyIds, 8L * (dependencyCount + dependencies.length));
+    for (long d : dependencies) {
+      dependencyIds.putLong(d);
+    }
+
+    records = ensureCapacity(records, (long) RECORD_BYTES * (size + 1));
+    int r = size * RECORD_BYTES;
+    records.putLong(r + NODE_ID, nodeId);
+    records.putDouble(r + OPTIMISTIC_TIME, optimisticTime);
+    records.putDouble(r + NORMAL_TIME, normalTime);
+    records.putDouble(r + PESSIMISTIC_TIME, pessimisticTime);
+    records.putDouble(r + EXPECTED_TIME, computeExpectedTime(optimisticTime, normalTime, pessimisticTime));
+    records.putInt(r + DEPENDENCY_START, dependencyCount);
+    records.putInt(r + DEPENDENCY_COUNT, dependencies.length);
+    records.putInt(r + TEXT_START, textStart);
+    records.putInt(r + NAME_LENGTH, nameBytes.length);
+    records.putInt(r + DESCRIPTION_LENGTH, descriptionBytes.length);
+    records.position(r + RECORD_BYTES);
+
+    indexOf.put(nodeId, size++);
+    dependencyCount += dependencies.length;
+    return true;
+  }
+
+  /**
+   * Append a copy of the given node to this store (see the addNode method above).
+   *
+   * @param node Node to copy into this store.
+   * @return True if the node was added. False if a node with the same ID is already in this store.
+   */
+  public boolean addNode(ActivityNode node) {
+    DependencySet d = node.getDependencies();
+    long[] dependencies = new long[d.size()];
+    for (int k = 0; k < dependencies.length; k++) {
+      dependencies[k] = d.get(k);
+    }
+
+    return addNode(node.getNodeId(), node.getName(), node.getDescription(), node.getOptimisticTime(),
+        node.getNormalTime(), node.getPessimisticTime(), dependencies);
+  }
+
+  /**
+   * Change the times of the node at the given position, in place.
+   *
+   * @param i               Position of the node, between 0 and size() - 1.
+   * @param optimisticTime  Optimistic time to activity completion in hours.
+   * @param normalTime      Normal time to activity completion in hours.
+   * @param pessimisticTime Pessimistic time to activity completion in hours.
+   * @throws IllegalStateException If this store already backs a network.
+   */
+  public void setTimes(int i, double optimisticTime, double normalTime, double pessimisticTime) {
+    checkNotSealed();
+    int r = i * RECORD_BYTES;
+    records.putDouble(r + OPTIMISTIC_TIME, optimisticTime);
+    records.putDouble(r + NORMAL_TIME, normalTime);
+    records.putDouble(r + PESSIMISTIC_TIME, pessimisticTime);
+    records.putDouble(r + EXPECTED_TIME, computeExpectedTime(optimisticTime, normalTime, pessimisticTime));
+  }
+
+  /**
+   * Make sure this store can still be changed, i.e. that it does not back a network yet.
+   *
+   * @throws IllegalStateException If this store already backs a network.
+   */
+  private void checkNotSealed() {
+    if (sealed) {
+      throw new IllegalStateException("Node store is in use by a network.");
+    }
+  }
+
+  /**
+   * Find the position of the node with the given ID.
+   *
+   * @param nodeId ID of the node to find.
+   * @return Position of the node in this store. -1 if the node is not in this store.
+   */
+  public int indexOf(long nodeId) {
+    return indexOf.get(nodeId);
+  }
+
+  /**
+   * Accessor method for the number of nodes.
+   *
+   * @return The number of nodes in this store.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Accessor method for the ID of a node.
+   *
+   * @param i Position of the node, between 0 and size() - 1.
+   * @return The node ID of the node.
+   */
+  public long getNodeId(int i) {
+    return records.getLong(i * RECORD_BYTES + NODE_ID);
+  }
+
+  /**
+   * Accessor method for the name of a node. The name is decoded on every call.
+   *
+   * @param i Position of the node, between 0 and size() - 1.
+   * @return The name of the node.
+   */
+  public String getName(int i) {
+    int r = i * RECORD_BYTES;
+    return readText(records.getInt(r + TEXT_START), records.getInt(r + NAME_LENGTH));
+  }
+
+  /**
+   * Accessor method for the description of a node. The description is decoded on every call.
+   *
+   * @param i Position of the node, between 0 and size() - 1.
+   * @return The description of the node.
+   */
+  public String getDescription(int i) {
+    int r = i * RECORD_BYTES;
+    return readText(records.getInt(r + TEXT_START) + records.getInt(r + NAME_LENGTH),
+        records.getInt(r + DESCRIPTION_LENGTH));
+  }
+
+  /**
+   * Accessor method for the optimistic time of a node.
+   *
+   * @param i Position of the node, between 0 and size() - 1.
+   * @return The optimistic time to activity completion in hours.
+   */
+  public double getOptimisticTime(int i) {
+    return records.getDouble(i * RECORD_BYTES + OPTIMISTIC_TIME);
+  }
+
+  /**
+   * Accessor method for the normal time of a node.
+   *
+   * @param i Position of the node, between 0 and size() - 1.
+   * @return The normal time to activity completion in hours.
+   */
+  public double getNormalTime(int i) {
+    return records.getDouble(i * RECORD_BYTES + NORMAL_TIME);
+  }
+
+  /**
+   * Accessor method for the pessimistic time of a node.
+   *
+   * @param i Position of the node, between 0 and size() - 1.
+   * @return The pessimistic time to activity completion in hours.
+   */
+  public double getPessimisticTime(int i) {
+    return records.getDouble(i * RECORD_BYTES + PESSIMISTIC_TIME);
+  }
+
+  /**
+   * Accessor method for the expected time of a node.
+   *
+   * @param i Position of the node, between 0 and size() - 1.
+   * @return The expected time to activity completion in hours.
+   */
+  public double getExpectedTime(int i) {
+    return records.getDouble(i * RECORD_BYTES + EXPECTED_TIME);
+  }
+
+  /**
+   * Accessor method for the dependencies of a node.
+   *
+   * @param i Position of the node, between 0 and size() - 1.
+   * @return A copy of the IDs of the nodes the node depends on.
+   */
+  public long[] getDependencies(int i) {
+    int r = i * RECORD_BYTES, start = records.getInt(r + DEPENDENCY_START);
+    long[] d = new long[records.getInt(r + DEPENDENCY_COUNT)];
+    for (int k = 0; k < d.length; k++) {
+      d[k] = dependencyIds.getLong(8 * (start + k));
+    }
+    return d;
+  }
+
+  /**
+   * Build a node object from the node at the given position. The node does not belong to any network.
+   *
+   * @param i Position of the node, between 0 and size() - 1.
+   * @return A new node with the fields of the stored node.
+   */
+  public ActivityNode retrieveNode(int i) {
+    ActivityNode n = new ActivityNode(getNodeId(i), getName(i), getDescription(i), getOptimisticTime(i),
+        getNormalTime(i), getPessimisticTime(i));
+    DependencySet dependencies = n.getDependencies();
+    for (long d : getDependencies(i)) {
+      dependencies.add(d);
+    }
+    return n;
+  }
+
+  /**
+   * Build a network backed by this store. The network holds no node objects: it answers reads and schedules straight
+   * from this store, and only builds a node object for every node once one of them is changed (or handed out to be
+   * changed, see ActivityNetwork.getNodeList). Node IDs and names are checked for uniqueness, and the nodes are sorted
+   * once. This store can no longer be changed afterwards, but it can back any number of networks.
+   *
+   * @param networkId   Unique identifier for the network.
+   * @param networkName Name of the network.
+   * @return The new network. Null if two nodes share a name, or if the nodes form a cycle.
+   */
+  public ActivityNetwork toNetwork(long networkId, String networkName) {
+    return toNetwork(networkId, networkName, 0);
+  }
+
+  /**
+   * Build a network backed by this store, with the given deadline (see the toNetwork method above). The deadline is
+   * kept as given: unlike ActivityNetwork.setHoursDeadline, it is not checked against the critical path time. When
+   * loading a network, NetworkStorage only replaces a negative deadline with 0 before calling this.
+   *
+   * @param networkId     Unique identifier for the network.
+   * @param networkName   Name of the network.
+   * @param hoursDeadline Deadline of the network.
+   * @return The new network. Null if two nodes share a name, or if the nodes form a cycle.
+   */
+  ActivityNetwork toNetwork(long networkId, String networkName, double hoursDeadline) {
+    NetworkGraph g = computeGraph();
+    if (g == null || !hasUniqueNames()) {
+      return null;
+    }
+
+    sealed = true;
+    return new ActivityNetwork(networkId, networkName, hoursDeadline, this, g, expectedTimes(g));
+  }
+
+  /**
+   * Check that no two nodes of this store share a name. The names are compared as they are stored (in UTF-8), sorted
+   * by a hash of each name, so only names with the same hash are compared and no string is built.
+   *
+   * @return True if every name is unique. False otherwise.
+   */
+  private boolean hasUniqueNames() {
+    long[] keys = new long[size];
+    for (int i = 0; i < size; i++) {
+      int r = i * RECORD_BYTES, start = records.getInt(r + TEXT_START), hash = 1;
+      for (int p = start; p < start + records.getInt(r + NAME_LENGTH); p++) {
+        hash = 31 * hash + text.get(p);
+      }
+      keys[i] = ((long) hash << 32) | i;
+    }
+    Arrays.sort(keys);
+
+    for (int k = 1; k < size; k++) {
+      for (int m = k - 1; m >= 0 && (keys[m] >> 32) == (keys[k] >> 32); m--) {
+        if (isSameName((int) keys[m], (int) keys[k])) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Check if the nodes at the given positions have the same name.
+   *
+   * @param i Position of the first node.
+   * @param j Position of the second node.
+   * @return True if both names hold the same bytes. False otherwise.
+   */
+  private boolean isSameName(int i, int j) {
+    int r = i * RECORD_BYTES, q = j * RECORD_BYTES, length = records.getInt(r + NAME_LENGTH);
+    if (length != records.getInt(q + NAME_LENGTH)) {
+      return false;
+    }
+
+    int a = records.getInt(r + TEXT_START), b = records.getInt(q + TEXT_START);
+    for (int p = 0; p < length; p++) {
+      if (text.get(a + p) != text.get(b + p)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Build the dependency graph of the nodes in this store without building any node objects. The graph is built
+   * straight from the stored IDs and sorted in topological order (Kahn's algorithm, preferring the order of insertion),
+   * in O(V + E) time. Only the graph arrays are held on the heap.
+   *
+   * @return The sorted graph of the stored nodes. Null if the nodes form a cycle.
+   */
+  NetworkGraph computeGraph() {
+    long[] nodeIds = new long[size], ids = new long[dependencyCount];
+    int[] offsets = new int[size + 1];
+    for (int i = 0; i < size; i++) {
+      nodeIds[i] = getNodeId(i);
+      offsets[i + 1] = offsets[i] + records.getInt(i * RECORD_BYTES + DEPENDENCY_COUNT);
+    }
+    for (int k = 0; k < dependencyCount; k++) {
+      ids[k] = dependencyIds.getLong(8 * k);
+    }
+
+    NetworkGraph g = new NetworkGraph(nodeIds, offsets, ids);
+    int[] order = g.sort();
+    return (order == null) ? null : g.reorder(order);
+  }
+
+  /**
+   * Collect the expected time of each node of the given graph.
+   *
+   * @param g Graph of the nodes in this store (see computeGraph).
+   * @return The expected time of each node, indexed by the node indices of the graph.
+   */
+  double[] expectedTimes(NetworkGraph g) {
+    double[] expectedTimes = new double[g.size()];
+    for (int k = 0; k < expectedTimes.length; k++) {
+      expectedTimes[k] = getExpectedTime(indexOf(g.getNodeId(k)));
+    }
+    return expectedTimes;
+  }
+
+  /**
+   * Compute the schedule of the nodes in this store without building any node objects (see computeGraph). Only the
+   * graph and the schedule arrays are held on the heap.
+   *
+   * @return The schedule of the stored nodes. Null if the nodes form a cycle.
+   */
+  public NetworkSchedule computeSchedule() {
+    NetworkGraph g = computeGraph();
+    return (g == null) ? null : new NetworkSchedule(g, expectedTimes(g));
+  }
+
+  /**
+   * Estimate the number of bytes this store retains, on and off the heap (see ActivityNetwork.estimateBytes).
+   *
+   * @return The estimated size of this store in bytes.
+   */
+  long estimateBytes() {
+    return 128 + records.capacity() + dependencyIds.capacity() + text.capacity() + 16L * size;
+  }
+}
@@ -0,0 +1,121 @@
+package com.ActivityNetwork;
+
+/**
+ * The SlackReport class, which holds the total, free, safety, and independent slack of every activity in a network.
+ * All slack values are computed together from a NetworkSchedule, in O(V + E) time. Values are stored in primitive
+ * arrays indexed by the topological position of each node (see getNodeIds). Definitions are taken from here:
+ * http://www.pmknowledgecenter.com/dynamic_scheduling/baseline/activity-slack-total-safety-and-free-slack-definitions
+ */
+public final class SlackReport {
+  /** Node ID of each node, indexed by topological position. */
+  private final long[] nodeIds;
+
+  /** Total slack of each node: the time it can be delayed without delaying the network. */
+  private final double[] totalSlack;
+
+  /** Free slack of each node: the time it can be delayed without delaying any of its successors. */
+  private final double[] freeSlack;
+
+  /** Safety slack of each node: the time it can be delayed when all of its dependencies finish as late as possible. */
+  private final double[] safetySlack;
+
+  /**
+   * Independent slack of each node: the time it can be delayed when all of its dependencies finish as late as possible,
+   * without delaying any of its successors. Never negative.
+   */
+  private final double[] independentSlack;
+
+  /**
+   * Constructor. Only a NetworkSchedule should create a slack report. The given arrays are not copied.
+   *
+   * @param nodeIds          Node ID of each node, indexed by topological position.
+   * @param totalSlack       Total slack of each node.
+   * @param freeSlack        Free slack of each node.
+   * @param safetySlack      Safety slack of each node.
+   * @param independentSlack Independent slack of each node.
+   */
+  SlackReport(long[] nodeIds, double[] totalSlack, double[] freeSlack, double[] safetySlack,
+              double[] independentSlack) {
+    this.nodeIds = nodeIds;
+    this.totalSlack = totalSlack;
+    this.freeSlack = freeSlack;
+    this.safetySlack = safetySlack;
+    this.independentSlack = independentSlack;
+  }
+
+  /**
+   * Accessor method for the node IDs. The slack of the node with ID getNodeIds()[i] is found at index i of each slack
+   * array.
+   *
+   * @return A copy of the node ID of each node, indexed by topological position.
+   */
+  public long[] getNodeIds() {
+    return nodeIds.clone();
+  }
+
+  /**
+   * Accessor method for the total slack of every node.
+   *
+   * @return A copy of the total slack of each node, indexed by topological position.
+   */
+  public double[] getTotalSlack() {
+    return totalSlack.clone();
+  }
+
+  /**
+   * Accessor method for the free slack of every node.
+   *
+   * @return A copy of the free slack of each node, indexed by topological position.
+   */
+  public double[] getFreeSlack() {
+    return freeSlack.clone();
+  }
+
+  /**
+   * Accessor method for the safety slack of every node.
+   *
+   * @return A copy of the safety slack of each node, indexed by topological position.
+   */
+  public double[] getSafetySlack() {
+    return safetySlack.clone();
+  }
+
+  /**
+   * Accessor method for the independent slack of every node.
+   *
+   * @return A copy of the independent slack of each node, indexed by topological position.
+   */
+  public double[] getIndependentSlack() {
+    return independentSlack.clone();
+  }
+
+  /**
+   * Accessor method for the total slack of a single node.
+   *
+   * @param i Topological position of the node.
+   * @return The total slack of the node at the given position.
+   */
+  double getTotalSlack(int i) {
+    return totalSlack[i];
+  }
+
+  /**
+   * Accessor method for the free slack of a single node.
+   *
+   * @param i Topological position of the node.
+   * @return The free slack of the node at the given position.
+   */
+  double getFreeSlack(int i) {
+    return freeSlack[i];
+  }
+
+  /**
+   * Accessor method for the safety slack of a single node.
+   *
+   * @param i Topological position of the node.
+   * @return The safety slack of the node at the given position.
+   */
+  double getSafetySlack(int i) {
+    return safetySlack[i];
+  }
+}
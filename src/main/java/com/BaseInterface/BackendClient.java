@@ -0,0 +1,119 @@
+///
+/// This file contains the BackendClient class, which holds the HTTP client shared by every call to the backend.
+///
+
+package com.BaseInterface;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+
+/**
+ * The BackendClient class, which holds a single HTTP client shared by every call to the backend (see UserAccount and
+ * NetworkStorage). Connections are pooled and kept alive between calls, so consecutive calls (e.g. loading every
+ * project of a user after logging in) reuse the same connections instead of opening a new one each time. Each
+ * response **MUST** be released (see release) once it has been read, so that its connection goes back to the pool.
+ */
+@SuppressWarnings("deprecation")
+public final class BackendClient {
+  /** The shared client. Null until the first call, and after a shutdown. */
+  private static DefaultHttpClient client;
+
+  /** Maximum number of pooled connections, over all routes. */
+  private static int maximumConnections = 20;
+
+  /** Maximum number of pooled connections to a single route (host and port). */
+  private static int maximumConnectionsPerRoute = 10;
+
+  /** Time to wait for a connection to be established (or to be free in the pool), in milliseconds. 0 waits forever. */
+  private static int connectTimeout = 5000;
+
+  /** Time to wait for data once connected, in milliseconds. 0 waits forever. */
+  private static int socketTimeout = 30000;
+
+  /**
+   * Apply our timeouts to the given client parameters.
+   *
+   * @param p Parameters of the shared client.
+   */
+  private static void applyTimeouts(HttpParams p) {
+    HttpConnectionParams.setConnectionTimeout(p, connectTimeout);
+    HttpConnectionParams.setSoTimeout(p, socketTimeout);
+    ConnManagerParams.setTimeout(p, connectTimeout);
+  }
+
+  /**
+   * Accessor method for the shared client, which is created on the first call.
+   *
+   * @return The shared HTTP client.
+   */
+  public static synchronized HttpClient getClient() {
+    if (client == null) {
+      ThreadSafeClientConnManager m = new ThreadSafeClientConnManager();
+      m.setMaxTotal(maximumConnections);
+      m.setDefaultMaxPerRoute(maximumConnectionsPerRoute);
+
+      client = new DefaultHttpClient(m);
+      applyTimeouts(client.getParams());
+    }
+    return client;
+  }
+
+  /**
+   * Set the timeouts of every call to the backend, including calls on the current client.
+   *
+   * @param connectTimeout Time to wait for a connection, in milliseconds. 0 waits forever.
+   * @param socketTimeout  Time to wait for data once connected, in milliseconds. 0 waits forever.
+   */
+  public static synchronized void setTimeouts(int connectTimeout, int socketTimeout) {
+    BackendClient.connectTimeout = Math.max(0, connectTimeout);
+    BackendClient.socketTimeout = Math.max(0, socketTimeout);
+    if (client != null) {
+      applyTimeouts(client.getParams());
+    }
+  }
+
+  /**
+   * Set the size of the connection pool. Takes effect once the current client is shut down (see shutdown).
+   *
+   * @param maximumConnections         Maximum number of pooled connections, over all routes.
+   * @param maximumConnectionsPerRoute Maximum number of pooled connections to a single route.
+   */
+  public static synchronized void setConnectionLimits(int maximumConnections, int maximumConnectionsPerRoute) {
+    BackendClient.maximumConnections = Math.max(1, maximumConnections);
+    BackendClient.maximumConnectionsPerRoute = Math.max(1, Math.min(maximumConnections, maximumConnectionsPerRoute));
+  }
+
+  /**
+   * Release the given response, reading whatever is left of it, so that its connection can be reused.
+   *
+   * @param response Response to release. Null is ignored.
+   */
+  public static void release(HttpResponse response) {
+    try {
+      if (response != null) {
+        EntityUtils.consume(response.getEntity());
+      }
+    } catch (IOException e) {
+      // The connection could not be reused, and is closed by the pool instead.
+    }
+  }
+
+  /**
+   * Close every pooled connection. The next call to the backend creates a new client. Should be called before the
+   * program exits.
+   */
+  public static synchronized void shutdown() {
+    if (client != null) {
+      client.getConnectionManager().shutdown();
+      client = null;
+    }
+  }
+}
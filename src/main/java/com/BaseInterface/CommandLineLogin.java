@@ -111,6 +111,7 @@ class CommandLineLogin extends CommandLineInterface {
         } else {
           // Exit program here.
           System.out.print("\nWe can't help you here. ): Goodbye.\n");
+          BackendClient.shutdown();
           exit(1);
         }
       }
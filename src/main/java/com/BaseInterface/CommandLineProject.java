@@ -1,7 +1,9 @@
 package com.BaseInterface;
 
 import com.ActivityNetwork.ActivityNetwork;
+import com.ActivityNetwork.ActivityNetworkView;
 import com.ActivityNetwork.ActivityNode;
+import com.ActivityNetwork.ActivityNodeView;
 import com.ActivityNetwork.NetworkController;
 
 import java.util.*;
@@ -242,9 +244,7 @@ class CommandLineProject extends CommandLineInterface {
     }
 
     // The new node ID is incremented from the node with the current largest node ID. Start at 1 if this is empty.
-    long nodeID = w.getNodeList().stream().max(
-        Comparator.comparingLong(ActivityNode::getNodeId)).orElse(
-        new ActivityNode(1, "", "", 0, 0, 0)).getNodeId() + 1;
+    long nodeID = w.getNodes().stream().mapToLong(ActivityNodeView::getNodeId).max().orElse(1) + 1;
 
     String description = readLine("Please describe your activity in one line: ");
     double optimisticTime = getPositiveTime("optimistic");
@@ -304,17 +304,17 @@ class CommandLineProject extends CommandLineInterface {
           break;
 
         case "optimistic time":
-          n.setOptimisticTime(updateDesired ? getPositiveTime("optimistic") : n.getTimes()[0]);
+          n.setOptimisticTime(updateDesired ? getPositiveTime("optimistic") : n.getOptimisticTime());
           timeHasChanged = updateDesired || timeHasChanged;
           break;
 
         case "normal time":
-          n.setNormalTime(updateDesired ? getPositiveTime("normal") : n.getTimes()[1]);
+          n.setNormalTime(updateDesired ? getPositiveTime("normal") : n.getNormalTime());
           timeHasChanged = updateDesired || timeHasChanged;
           break;
 
         case "pessimistic time":
-          n.setPessimisticTime(updateDesired ? getPositiveTime("pessimistic") : n.getTimes()[2]);
+          n.setPessimisticTime(updateDesired ? getPositiveTime("pessimistic") : n.getPessimisticTime());
           timeHasChanged = updateDesired || timeHasChanged;
           break;
 
@@ -324,10 +324,9 @@ class CommandLineProject extends CommandLineInterface {
       }
     }
 
-    // Modification is node removal and insertion.
+    // Modification is done in place, so nodes depending on this node keep their dependency.
     System.out.println();
-    w.deleteNode(nodeID);
-    w.insertNode(n);
+    w.updateNode(n);
 
     System.out.println();
     if (timeHasChanged) {
@@ -349,9 +348,11 @@ class CommandLineProject extends CommandLineInterface {
     boolean successfulSelection = false, printMenu = true, networkChanged = false;
 
     while (!successfulSelection) {
-      // First, get the desired command and copy the current instance of our network.
+      // First, get the desired command and a view of the current instance of our network. Only the commands that
+      // change the network copy it.
       String[] command = acceptProjectSpecificCommand(printMenu);
-      ActivityNetwork w = nc.retrieveNetwork(networkID);
+      ActivityNetworkView v = nc.viewNetwork(networkID);
+      ActivityNetwork w = null;
       printMenu = false;
 
       switch (command[0]) {
@@ -360,19 +361,22 @@ class CommandLineProject extends CommandLineInterface {
           break;
 
         case "add":
+          w = nc.retrieveNetwork(networkID);
           addNodeConsole(w, command[1]);
           networkChanged = true;
           break;
 
         case "edit":
+          w = nc.retrieveNetwork(networkID);
           editNodeConsole(w, command[1]);
           networkChanged = true;
           break;
 
         case "delete":
-          if (!w.isNodeInNetwork(command[1])) {
+          if (!v.isNodeInNetwork(command[1])) {
             System.out.println("The node does not exist.\n");
           } else {
+            w = nc.retrieveNetwork(networkID);
             w.deleteNode(w.nodeIdFromName(command[1]));
             System.out.println("The node has been deleted.\n");
             networkChanged = true;
@@ -380,24 +384,25 @@ class CommandLineProject extends CommandLineInterface {
           break;
 
         case "slack-total":
-          if (!w.isNodeInNetwork(command[1])) {
+          if (!v.isNodeInNetwork(command[1])) {
             System.out.println("The node does not exist.\n");
           } else {
             System.out.println("The total slack of \"" + command[1] + "\" is " +
-                w.computeTotalSlack(w.nodeIdFromName(command[1])));
+                v.computeTotalSlack(v.nodeIdFromName(command[1])));
           }
           break;
 
         case "slack-safety":
-          if (!w.isNodeInNetwork(command[1])) {
+          if (!v.isNodeInNetwork(command[1])) {
             System.out.println("The node does not exist.\n");
           } else {
             System.out.println("The safety slack of \"" + command[1] + "\" is " +
-                w.computeSafetySlack(w.nodeIdFromName(command[1])));
+                v.computeSafetySlack(v.nodeIdFromName(command[1])));
           }
           break;
 
         case "set-deadline":
+          w = nc.retrieveNetwork(networkID);
           System.out.println(w.setHoursDeadline(getPositiveTime("deadline")) ? "Deadline changed successfully. " :
               "Deadline not changed. Time is unrealistic. ");
           System.out.println();
@@ -405,23 +410,23 @@ class CommandLineProject extends CommandLineInterface {
           break;
 
         case "slack-free":
-          if (!w.isNodeInNetwork(command[1])) {
+          if (!v.isNodeInNetwork(command[1])) {
             System.out.println("The node does not exist.\n");
           } else {
             System.out.println("The free slack of \"" + command[1] + "\" is " +
-                w.computeFreeSlack(w.nodeIdFromName(command[1])));
+                v.computeFreeSlack(v.nodeIdFromName(command[1])));
           }
           break;
 
         case "view-network":
           System.out.print("| ");
-          w.getNodeList().forEach(n -> System.out.print(n.getName() + " | "));
+          v.getNodes().forEach(n -> System.out.print(n.getName() + " | "));
           System.out.println("\n");
           break;
 
         case "view-critical":
           System.out.print("| ");
-          w.computeCriticalPath().forEach(n -> System.out.print(w.nodeNameFromId(n) + " | "));
+          v.computeCriticalPath().forEach(n -> System.out.print(v.nodeNameFromId(n) + " | "));
           System.out.println("\n");
           break;
 
@@ -23,18 +23,25 @@ public class CommandLineRunner {
     boolean desiredExit = false;
 
     NetworkController nc = new NetworkController(userInfo.get(0), userInfo.get(1), userInfo.get(2));
-    while (!desiredExit) {
-      // Once passed, the user has access to the projects screen.
-      long desiredNetworkID = p.projectOverviewScreen(nc);
+    try {
+      while (!desiredExit) {
+        // Once passed, the user has access to the projects screen.
+        long desiredNetworkID = p.projectOverviewScreen(nc);
 
-      // We are now in the single project screen.
-      if (desiredNetworkID != 0) {
-        p.projectSpecificScreen(nc, desiredNetworkID);
+        // We are now in the single project screen.
+        if (desiredNetworkID != 0) {
+          p.projectSpecificScreen(nc, desiredNetworkID);
 
-      } else {
-        desiredExit = true;
+        } else {
+          desiredExit = true;
 
+        }
       }
+
+    } finally {
+      // Release the spill file of our chains and our connections to the backend on the way out.
+      nc.close();
+      BackendClient.shutdown();
     }
   }
 }
@@ -9,7 +9,6 @@ import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.impl.client.DefaultHttpClient;
 import org.apache.http.message.BasicNameValuePair;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -194,17 +193,16 @@ public final class UserAccount {
    */
   public static String createAccount(String u, String p) {
     JSONParser jsonParser = new JSONParser();
+    HttpResponse response = null;
 
     try {
-      DefaultHttpClient httpClient = new DefaultHttpClient();
-
       HttpPost postRequest = new HttpPost("http://localhost/PHPWebServer/register.php");
       List<NameValuePair> params = new ArrayList<>(Arrays.asList(new BasicNameValuePair("username", u),
           new BasicNameValuePair("password", p)));
       postRequest.setEntity(new UrlEncodedFormEntity(params));
 
-      // POST our login information, wait for our response.
-      HttpResponse response = httpClient.execute(postRequest);
+      // POST our login information with the shared client (see BackendClient), wait for our response.
+      response = BackendClient.getClient().execute(postRequest);
       if (response.getStatusLine().getStatusCode() != 200) {
         throw new RuntimeException("Failed : HTTP error code : " + response.getStatusLine().getStatusCode());
       }
@@ -213,12 +211,15 @@ public final class UserAccount {
       BufferedReader br = new BufferedReader(new InputStreamReader((response.getEntity().getContent())));
       JSONObject jsonReturned = (JSONObject) jsonParser.parse(br);
 
-      // Disconnect and return our error message that we parsed.
-      httpClient.getConnectionManager().shutdown();
+      // Return our error message that we parsed.
       return (String) jsonReturned.get("ErrorMessage");
 
     } catch (ParseException | IOException e) {
       return "Exception occurred. Do not proceed.";
+
+    } finally {
+      // Release our connection, so that the next call can reuse it.
+      BackendClient.release(response);
     }
   }
 
@@ -234,17 +235,16 @@ public final class UserAccount {
    */
   public static ArrayList<String> verifyLoginInfo(String u, String p) {
     JSONParser jsonParser = new JSONParser();
+    HttpResponse response = null;
 
     try {
-      DefaultHttpClient httpClient = new DefaultHttpClient();
-
       HttpPost postRequest = new HttpPost("http://localhost/PHPWebServer/login.php");
       List<NameValuePair> params = new ArrayList<>(Arrays.asList(new BasicNameValuePair("username", u),
           new BasicNameValuePair("password", p)));
       postRequest.setEntity(new UrlEncodedFormEntity(params));
 
-      // POST our login information, wait for our response.
-      HttpResponse response = httpClient.execute(postRequest);
+      // POST our login information with the shared client (see BackendClient), wait for our response.
+      response = BackendClient.getClient().execute(postRequest);
       if (response.getStatusLine().getStatusCode() != 200) {
         throw new RuntimeException("Failed : HTTP error code : " + response.getStatusLine().getStatusCode());
       }
@@ -256,12 +256,10 @@ public final class UserAccount {
 
       // If we have an error, return an empty list.
       if (errorMessage.get("Error").toString().equalsIgnoreCase("false")) {
-        httpClient.getConnectionManager().shutdown();
         return new ArrayList<>();
 
       } else {
         // Otherwise, return the username, authentication token and the project JSON.
-        httpClient.getConnectionManager().shutdown();
         return new ArrayList<>(Arrays.asList(u, errorMessage.get("Auth").toString(),
             jsonReturned.get("ProjectsJSON").toString()));
 
@@ -269,6 +267,9 @@ public final class UserAccount {
     } catch (ParseException | IOException e) {
       return new ArrayList<>();
 
+    } finally {
+      // Release our connection, so that the next call can reuse it.
+      BackendClient.release(response);
     }
   }
 }
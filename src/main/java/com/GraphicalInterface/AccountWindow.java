@@ -1,9 +1,12 @@
 package com.GraphicalInterface;
 
+import com.BaseInterface.BackendClient;
 import com.BaseInterface.UserAccount;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.ArrayList;
 
 public class AccountWindow {
@@ -73,6 +76,15 @@ public class AccountWindow {
     setupLoginFrame();
     frame.setContentPane(loginPane);
     frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+    frame.addWindowListener(
+        new WindowAdapter() {
+          @Override
+          public void windowClosing(WindowEvent e) {
+            // The program exits once this window closes. Release our connections to the backend first.
+            BackendClient.shutdown();
+          }
+        }
+    );
     frame.setResizable(false);
     frame.pack();
     frame.setLocationRelativeTo(null);
@@ -2,12 +2,12 @@ package com.GraphicalInterface;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Set;
 
 import com.ActivityNetwork.ActivityNetwork;
 import com.ActivityNetwork.ActivityNode;
+import com.ActivityNetwork.ActivityNodeView;
 import com.ActivityNetwork.NetworkController;
 
 public class ActivityEditWindow {
@@ -55,16 +55,14 @@ public class ActivityEditWindow {
     setActivityFrame();
 
     DefaultListModel<String> m = new DefaultListModel<>();
-    a.getNodeList().forEach(n1 -> m.addElement(n1.getName()));
+    a.getNodes().forEach(n1 -> m.addElement(n1.getName()));
     dependencyList.setModel(m);
 
     submitActivityButton.addActionListener(
         e -> {
           if (verifyInfo(a, false)) {
             // The new node ID is incremented from the node with the current largest node ID. Start at 1 if this is empty.
-            long nodeID = a.getNodeList().stream().max(
-                Comparator.comparingLong(ActivityNode::getNodeId)).orElse(
-                new ActivityNode(1, "", "", 0, 0, 0)).getNodeId() + 1;
+            long nodeID = a.getNodes().stream().mapToLong(ActivityNodeView::getNodeId).max().orElse(1) + 1;
 
             // Pull all the good data...
             String name = nameField.getText();
@@ -81,12 +79,12 @@ public class ActivityEditWindow {
 
             // We append the node's normal time to the network's deadline.
             a.insertNode(n);
-            a.setHoursDeadline(a.getHoursDeadline() + n.getTimes()[3]);
+            a.setHoursDeadline(a.getHoursDeadline() + n.getExpectedTime());
 
             nc.modifyNetwork(a);
             nc.storeNetwork(a.getNetworkId());
             parent.updateActivityList(nc);
-            parent.setupGraphTable();
+            parent.setupGraphTable(nc);
             frame.dispose();
           }
         }
@@ -114,12 +112,12 @@ public class ActivityEditWindow {
     // Display the current activity information.
     nameField.setText(name);
     descriptionField.setText(n.getDescription());
-    optimisticTimeSpinner.setValue(n.getTimes()[0]);
-    normalTimeSpinner.setValue(n.getTimes()[1]);
-    pessimisticTimeSpinner.setValue(n.getTimes()[2]);
+    optimisticTimeSpinner.setValue(n.getOptimisticTime());
+    normalTimeSpinner.setValue(n.getNormalTime());
+    pessimisticTimeSpinner.setValue(n.getPessimisticTime());
 
     DefaultListModel<String> m = new DefaultListModel<>();
-    a.getNodeList().forEach(n1 -> m.addElement(n1.getName()));
+    a.getNodes().forEach(n1 -> m.addElement(n1.getName()));
     dependencyList.setModel(m);
 
     submitActivityButton.addActionListener(
@@ -134,16 +132,15 @@ public class ActivityEditWindow {
             Set<Long> dependencies = new HashSet<>();
             dependencyList.getSelectedValuesList().forEach(d -> dependencies.add(a.nodeIdFromName(d)));
 
-            // Insert the node into our network.
-            a.deleteNode(n.getNodeId());
+            // Update the node in our network.
             n = new ActivityNode(n.getNodeId(), newName, description, optimisticTime, normalTime, pessimisticTime);
             n.setDependencies(dependencies);
 
-            a.insertNode(n);
+            a.updateNode(n);
             nc.modifyNetwork(a);
             nc.storeNetwork(a.getNetworkId());
             parent.updateActivityList(nc);
-            parent.setupGraphTable();
+            parent.setupGraphTable(nc);
             frame.dispose();
           }
         }
@@ -185,7 +182,7 @@ public class ActivityEditWindow {
     }
 
     // Verify that the name is not taken by other nodes.
-    if (!isEdit && a.getNodeList().stream().anyMatch(n1 -> n1.getName().equals(nameField.getText()))) {
+    if (!isEdit && a.isNodeInNetwork(nameField.getText())) {
       JOptionPane.showMessageDialog(frame, "There exists an activity with that name. Please choose another.",
           "Error", JOptionPane.ERROR_MESSAGE);
       return false;
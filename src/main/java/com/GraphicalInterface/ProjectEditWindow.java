@@ -1,14 +1,17 @@
 package com.GraphicalInterface;
 
 import com.ActivityNetwork.ActivityNetwork;
-import com.ActivityNetwork.ActivityNode;
+import com.ActivityNetwork.ActivityNetworkView;
+import com.ActivityNetwork.ActivityNodeView;
 import com.ActivityNetwork.NetworkController;
+import com.ActivityNetwork.NetworkSchedule;
 import com.BaseInterface.UserAccount;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.List;
 
 import static java.lang.Math.abs;
 
@@ -84,8 +87,8 @@ public class ProjectEditWindow {
     projectLabel.setText("Project: " + a.getNetworkName());
 
     // Display our current activities.
-    if (!a.getNodeList().isEmpty()) {
-      a.getNodeList().forEach(n -> m.addElement(n.getName()));
+    if (!a.getNodes().isEmpty()) {
+      a.getNodes().forEach(n -> m.addElement(n.getName()));
       currentActivityList.setModel(m);
       activityListInSlack.setModel(m);
     }
@@ -115,7 +118,7 @@ public class ProjectEditWindow {
     addActivityButtonListeners(nc);
     addSlackListeners();
     setupEditProjectFrame();
-    setupGraphTable();
+    setupGraphTable(nc);
 
     frame.setContentPane(projectEditPane);
     frame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
@@ -149,7 +152,7 @@ public class ProjectEditWindow {
     addActivityButtonListeners(nc);
     addSlackListeners();
     setupAddProjectFrame();
-    setupGraphTable();
+    setupGraphTable(nc);
 
     deadlineSpinner.setModel(new SpinnerNumberModel(1.00, 0.01, (double) Integer.MAX_VALUE, 0.01));
     frame.setContentPane(projectEditPane);
@@ -196,7 +199,7 @@ public class ProjectEditWindow {
 
               } else {
                 updateActivityList(nc);
-                setupGraphTable();
+                setupGraphTable(nc);
               }
             }
           }
@@ -206,8 +209,9 @@ public class ProjectEditWindow {
     undoButton.addActionListener(
         e -> {
           if (nc.undoNetworkChange(a.getNetworkId())) {
+            a = nc.retrieveNetwork(a.getNetworkId());
             updateActivityList(nc);
-            setupGraphTable();
+            setupGraphTable(nc);
           }
         }
     );
@@ -215,8 +219,9 @@ public class ProjectEditWindow {
     redoButton.addActionListener(
         e -> {
           if (nc.redoNetworkChange(a.getNetworkId())) {
+            a = nc.retrieveNetwork(a.getNetworkId());
             updateActivityList(nc);
-            setupGraphTable();
+            setupGraphTable(nc);
           }
         }
     );
@@ -239,26 +244,31 @@ public class ProjectEditWindow {
   }
 
   /**
-   * Setup the graph table (wonderful documentation isn't it?).
+   * Setup the graph table (wonderful documentation isn't it?). The table shows the latest recorded instance of our
+   * network, through a read-only view.
+   *
+   * @param nc Working network controller.
    */
-  void setupGraphTable() {
+  void setupGraphTable(NetworkController nc) {
     DefaultTableModel m_2 = new DefaultTableModel();
+    ActivityNetworkView v = nc.viewNetwork(a.getNetworkId());
 
     // Attributes are the activity names, and the hours.
     m_2.addColumn("Activity Name");
-    for (int i = 0; i < a.getHoursDeadline() + 1; i++) {
+    for (int i = 0; i < v.getHoursDeadline() + 1; i++) {
       m_2.addColumn(Integer.toString(i));
     }
 
-    // Collect the data for this table.
-    ArrayList<ActivityNode> u = a.getNodeList();
-    for (ActivityNode a_1 : u) {
+    // Collect the data for this table. The schedule is computed once for every row.
+    List<ActivityNodeView> u = v.getNodes();
+    NetworkSchedule s = v.computeSchedule();
+    for (ActivityNodeView a_1 : u) {
       Object[] row = new Object[m_2.getColumnCount()];
 
       // For each corresponding time, we mark the cell with an 'X".
       row[0] = a_1.getName();
-      for (int j = (int) a.computeEarliestStartTime(a_1.getNodeId());
-           j < (int) a.computeEarliestFinishTime(a_1.getNodeId()); j++) {
+      for (int j = (int) s.getEarliestStartTime(a_1.getNodeId());
+           j < (int) s.getEarliestFinishTime(a_1.getNodeId()); j++) {
         row[j + 1] = "X";
       }
       m_2.addRow(row);
@@ -268,14 +278,14 @@ public class ProjectEditWindow {
   }
 
   /**
-   * Reflect updates to activity list.
+   * Reflect updates to activity list. The list shows the latest recorded instance of our network, through a read-only
+   * view.
    *
    * @param nc Working network controller.
    */
   void updateActivityList(NetworkController nc) {
     m.clear();
-    a = nc.retrieveNetwork(a.getNetworkId());
-    a.getNodeList().forEach(n -> m.addElement(n.getName()));
+    nc.viewNetwork(a.getNetworkId()).getNodes().forEach(n -> m.addElement(n.getName()));
     currentActivityList.setModel(m);
     activityListInSlack.setModel(m);
   }
@@ -1,10 +1,13 @@
 package com.GraphicalInterface;
 
 import com.ActivityNetwork.NetworkController;
+import com.BaseInterface.BackendClient;
 import com.BaseInterface.UserAccount;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.util.ArrayList;
 
 public class ProjectOverviewWindow {
@@ -64,6 +67,17 @@ public class ProjectOverviewWindow {
     addProjectButtonListeners(m);
     frame.setContentPane(projectOverviewPane);
     frame.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+    frame.addWindowListener(
+        new WindowAdapter() {
+          @Override
+          public void windowClosing(WindowEvent e) {
+            // The program exits once this window closes. Release the spill file of our chains and our connections to
+            // the backend first.
+            nc.close();
+            BackendClient.shutdown();
+          }
+        }
+    );
     frame.setResizable(false);
     frame.pack();
     frame.setLocationRelativeTo(null);
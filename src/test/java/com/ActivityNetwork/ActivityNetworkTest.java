@@ -1,5 +1,8 @@
 package com.ActivityNetwork;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 
@@ -33,6 +36,109 @@ public class ActivityNetworkTest {
     assertEquals(0, testNetwork2.getNodeList().size());
   }
 
+  /**
+   * Verify that a twin shares nothing visible with its network: changes made to either one after cloning (through the
+   * network or through its nodes) never show up in the other, and twins of twins behave the same way.
+   */
+  @Test
+  public void testTwinsAreIndependent() {
+    testNetwork.insertNode(new ActivityNode(1, "A", "AA", 1, 1, 1));
+    testNetwork.insertNode(new ActivityNode(2, "B", "BB", 2, 2, 2));
+    ActivityNode b = testNetwork.retrieveNode(2);
+    b.setDependencies(new HashSet<>(Collections.singletonList((long) 1)));
+    testNetwork.updateNode(b);
+    assertEquals(3, testNetwork.computeCriticalPathTime(), 1.0e-9);
+
+    // Change the network through one of its nodes. The twin keeps the old values.
+    ActivityNetwork t1 = testNetwork.twin();
+    ActivityNode a = testNetwork.getNodeList().get(0);
+    a.setTimes(4, 4, 4);
+    a.setDescription("Changed");
+    a.setName("C");
+    assertEquals(6, testNetwork.computeCriticalPathTime(), 1.0e-9);
+    assertEquals(3, t1.computeCriticalPathTime(), 1.0e-9);
+    assertEquals("AA", t1.retrieveNode(1).getDescription());
+    assertEquals(1, t1.nodeIdFromName("A"));
+    assertEquals(-1, t1.nodeIdFromName("C"));
+
+    // Change a twin of a twin. Neither the twin nor the network see it.
+    ActivityNetwork t2 = t1.twin();
+    assertTrue(t2.deleteNode(1));
+    assertTrue(t2.getNodeList().get(0).getDependencies().isEmpty());
+    assertEquals(2, t1.getNodeList().size());
+    assertEquals(2, testNetwork.getNodeList().size());
+    assertTrue(t1.isUpstream(1, 2));
+
+    // Nodes handed out by a twin belong to the twin.
+    ActivityNode c = t1.getNodeList().get(1);
+    c.setTimes(10, 10, 10);
+    assertEquals(11, t1.computeCriticalPathTime(), 1.0e-9);
+    assertEquals(6, testNetwork.computeCriticalPathTime(), 1.0e-9);
+    assertEquals(2, testNetwork.retrieveNode(2).getNormalTime(), 1.0e-9);
+  }
+
+  /**
+   * Verify that a change to a network copies its nodes once for all of its twins, and not at all for a twin that was
+   * released.
+   */
+  @Test
+  public void testTwinCopies() {
+    testNetwork.insertNode(new ActivityNode(1, "A", "AA", 1, 1, 1));
+    testNetwork.insertNode(new ActivityNode(2, "B", "BB", 2, 2, 2));
+    testNetwork.setDependencies(2, new HashSet<>(Collections.singletonList((long) 1)));
+
+    // Both twins are handed the same copy, and still get their own once one of them changes.
+    ActivityNetwork t1 = testNetwork.twin(), t2 = testNetwork.twin();
+    testNetwork.deleteNode(1);
+    assertNotSame(testNetwork.viewNode(2), t1.viewNode(2));
+    assertSame(t1.viewNode(2), t2.viewNode(2));
+    assertTrue(t1.deleteNode(2));
+    assertEquals(2, t2.getNodes().size());
+    assertEquals(3, t2.computeCriticalPathTime(), 1.0e-9);
+    assertTrue(t2.isUpstream(1, 2));
+
+    // A released twin is not given a copy, so (if it were still used) it would see the change.
+    ActivityNetwork t3 = testNetwork.twin();
+    t3.release();
+    assertTrue(testNetwork.deleteNode(2));
+    assertNull(t3.viewNode(2));
+  }
+
+  /**
+   * Verify that read-only views are handed out without copying (even by a twin), and that they cannot be changed.
+   */
+  @Test
+  public void testNodeViews() {
+    testNetwork.insertNode(new ActivityNode(1, "A", "AA", 1, 1, 1));
+    testNetwork.insertNode(new ActivityNode(2, "B", "BB", 2, 2, 2));
+    testNetwork.setDependencies(2, new HashSet<>(Collections.singletonList((long) 1)));
+
+    ActivityNetworkView v = testNetwork.twin();
+    assertSame(testNetwork.getNodes().get(1), v.getNodes().get(1));
+    assertSame(v.getNodes().get(1), v.viewNode(2));
+    assertNull(v.viewNode(3));
+    assertEquals("BB", v.viewNode(2).getDescription());
+    assertEquals(Collections.singleton((long) 1), v.viewNode(2).getDependencyIds());
+
+    try {
+      v.getNodes().remove(0);
+      fail();
+    } catch (UnsupportedOperationException e) {
+      assertEquals(2, v.getNodes().size());
+    }
+    try {
+      v.viewNode(2).getDependencyIds().clear();
+      fail();
+    } catch (UnsupportedOperationException e) {
+      assertTrue(testNetwork.isUpstream(1, 2));
+    }
+
+    // The view keeps showing the network as it was when it was taken.
+    testNetwork.deleteNode(1);
+    assertEquals(2, v.getNodes().size());
+    assertEquals(3, v.computeCriticalPathTime(), 1.0e-9);
+  }
+
   /**
    * Verify that the nodes are inserted if and only if their node IDs are unique.
    */
@@ -150,23 +256,59 @@ public class ActivityNetworkTest {
   }
 
   /**
-   * Verify that each slack computation does not crash, and produces distinct results for different networks.
+   * Verify that each slack computation does not crash, and produces distinct results for different nodes. The network
+   * used is below, with the expected times in parentheses.
+   * <p>
+   * 1 (15) --> 2 (15) --> 4 (15)
+   * 3 (12) ------------->
    */
   @Test
   public void testSlackComputations() {
     ActivityNode a = new ActivityNode(1, "A", "AA", 10, 15, 20);
     ActivityNode b = new ActivityNode(2, "B", "BB", 10, 15, 20);
+    ActivityNode c = new ActivityNode(3, "C", "CC", 10, 12, 14);
+    ActivityNode d = new ActivityNode(4, "D", "DD", 10, 15, 20);
 
     assertTrue(testNetwork.insertNode(a) && testNetwork.insertNode(b));
-    assertTrue(testNetwork.setDependencies(2, new HashSet<>(1)));
+    assertTrue(testNetwork.insertNode(c) && testNetwork.insertNode(d));
+    assertTrue(testNetwork.setDependencies(2, new HashSet<>(Collections.singletonList((long) 1))));
+    assertTrue(testNetwork.setDependencies(4, new HashSet<>(Arrays.asList((long) 2, (long) 3))));
 
-    double[] totalSlack = {testNetwork.computeTotalSlack(1), testNetwork.computeTotalSlack(2)};
-    double[] freeSlack = {testNetwork.computeFreeSlack(1), testNetwork.computeFreeSlack(2)};
-    double[] safetySlack = {testNetwork.computeSafetySlack(1), testNetwork.computeSafetySlack(2)};
+    double[] totalSlack = {testNetwork.computeTotalSlack(1), testNetwork.computeTotalSlack(3)};
+    double[] freeSlack = {testNetwork.computeFreeSlack(1), testNetwork.computeFreeSlack(3)};
+    double[] safetySlack = {testNetwork.computeSafetySlack(1), testNetwork.computeSafetySlack(3)};
 
     assertTrue(Math.abs(totalSlack[0] - totalSlack[1]) > Math.ulp(totalSlack[0]));
     assertTrue(Math.abs(freeSlack[0] - freeSlack[1]) > Math.ulp(freeSlack[0]));
     assertTrue(Math.abs(safetySlack[0] - safetySlack[1]) > Math.ulp(safetySlack[0]));
+
+    // Node 3 can slip by 18 hours without delaying node 4 (or the network).
+    assertEquals(18, testNetwork.computeTotalSlack(3), 1.0e-9);
+    assertEquals(18, testNetwork.computeFreeSlack(3), 1.0e-9);
+    assertEquals(18, testNetwork.computeSafetySlack(3), 1.0e-9);
+    assertEquals(0, testNetwork.computeTotalSlack(2), 1.0e-9);
+  }
+
+  /**
+   * Verify that the earliest and latest times follow the dependencies, and not the order of the node list.
+   */
+  @Test
+  public void testScheduleTimes() {
+    testNetwork.insertNode(new ActivityNode(1, "A", "AA", 10, 15, 20));
+    testNetwork.insertNode(new ActivityNode(2, "B", "BB", 10, 15, 20));
+    testNetwork.insertNode(new ActivityNode(3, "C", "CC", 10, 15, 20));
+    assertTrue(testNetwork.setDependencies(3, new HashSet<>(Collections.singletonList((long) 1))));
+
+    // Nodes 1 and 2 are independent, so both start immediately. Node 3 waits only for node 1.
+    assertEquals(0, testNetwork.computeEarliestStartTime(1), 1.0e-9);
+    assertEquals(0, testNetwork.computeEarliestStartTime(2), 1.0e-9);
+    assertEquals(15, testNetwork.computeEarliestStartTime(3), 1.0e-9);
+    assertEquals(30, testNetwork.computeEarliestFinishTime(3), 1.0e-9);
+
+    // Node 2 can start as late as 15 hours in without delaying the network.
+    assertEquals(15, testNetwork.computeLatestStartTime(2), 1.0e-9);
+    assertEquals(30, testNetwork.computeLatestFinishTime(2), 1.0e-9);
+    assertEquals(15, testNetwork.computeLatestFinishTime(1), 1.0e-9);
   }
 
   /**
@@ -195,4 +337,308 @@ public class ActivityNetworkTest {
     assertTrue(testNetwork.setDependencies(3, dependenciesC));
     assertEquals(45, testNetwork.computeCriticalPathTime(), Math.ulp(testNetwork.computeCriticalPathTime()));
   }
-}
\ No newline at end of file
+
+  /**
+   * Verify that the critical path follows the longest chain of dependencies, from the first node to the last.
+   */
+  @Test
+  public void testCriticalPath() {
+    assertTrue(testNetwork.computeCriticalPath().isEmpty());
+
+    testNetwork.insertNode(new ActivityNode(1, "A", "AA", 10, 15, 20));
+    testNetwork.insertNode(new ActivityNode(2, "B", "BB", 1, 1, 1));
+    testNetwork.insertNode(new ActivityNode(3, "C", "CC", 10, 15, 20));
+    testNetwork.insertNode(new ActivityNode(4, "D", "DD", 1, 1, 1));
+    assertTrue(testNetwork.setDependencies(3, new HashSet<>(Arrays.asList((long) 1, (long) 2))));
+    assertTrue(testNetwork.setDependencies(4, new HashSet<>(Collections.singletonList((long) 2))));
+
+    assertEquals(Arrays.asList((long) 1, (long) 3), testNetwork.computeCriticalPath());
+    assertEquals(30, testNetwork.computeCriticalPathTime(), 1.0e-9);
+  }
+
+  /**
+   * Verify that node lookups by name and ID follow renames, both through the network and through the node itself.
+   */
+  @Test
+  public void testNodeRenaming() {
+    ActivityNode a = new ActivityNode(1, "A", "AA", 10, 15, 20);
+    assertTrue(testNetwork.insertNode(a));
+    assertTrue(testNetwork.insertNode(new ActivityNode(2, "B", "BB", 10, 15, 20)));
+
+    assertTrue(testNetwork.renameNode(1, "C"));
+    assertFalse(testNetwork.isNodeInNetwork("A"));
+    assertEquals(1, testNetwork.nodeIdFromName("C"));
+    assertEquals("C", testNetwork.nodeNameFromId(1));
+
+    a.setName("D");
+    assertEquals(-1, testNetwork.nodeIdFromName("C"));
+    assertEquals(1, testNetwork.nodeIdFromName("D"));
+
+    // Names must remain unique.
+    assertFalse(testNetwork.renameNode(1, "B"));
+    assertFalse(testNetwork.renameNode(3, "E"));
+    assertEquals(2, testNetwork.nodeIdFromName("B"));
+
+    // Deleted nodes are no longer found, and are free to be renamed.
+    assertTrue(testNetwork.deleteNode(1));
+    assertFalse(testNetwork.isNodeInNetwork("D"));
+    a.setName("B");
+    assertEquals(2, testNetwork.nodeIdFromName("B"));
+  }
+
+  /**
+   * Verify that a node inserted before one of its dependencies is moved after that dependency once it is inserted.
+   */
+  @Test
+  public void testNodesSortedAfterOutOfOrderInsertion() {
+    ActivityNode c = new ActivityNode(3, "C", "CC", 10, 15, 20);
+    c.setDependencies(new HashSet<>(Collections.singletonList((long) 1)));
+
+    assertTrue(testNetwork.insertNode(c));
+    assertTrue(testNetwork.insertNode(new ActivityNode(2, "B", "BB", 10, 15, 20)));
+    assertTrue(testNetwork.insertNode(new ActivityNode(1, "A", "AA", 10, 15, 20)));
+
+    // Node 2 does not depend on anything, so it keeps its position.
+    assertEquals(1, testNetwork.getStartNodeId());
+    assertEquals(2, testNetwork.getNodeList().get(1).getNodeId());
+    assertEquals(3, testNetwork.getNodeList().get(2).getNodeId());
+    assertEquals(30, testNetwork.computeCriticalPathTime(), 1.0e-9);
+  }
+
+  /**
+   * Verify that deleting a node removes it from the dependencies of the nodes that depended on it, and only from those.
+   * Nodes that no longer wait on a missing node are not moved once it is inserted.
+   */
+  @Test
+  public void testDeletionPurgesDependents() {
+    ActivityNode b = new ActivityNode(2, "B", "BB", 10, 15, 20), c = new ActivityNode(3, "C", "CC", 10, 15, 20);
+    ActivityNode d = new ActivityNode(4, "D", "DD", 10, 15, 20), e = new ActivityNode(5, "E", "EE", 10, 15, 20);
+    b.setDependencies(new HashSet<>(Collections.singletonList((long) 1)));
+    c.setDependencies(new HashSet<>(Collections.singletonList((long) 1)));
+    d.setDependencies(new HashSet<>(Collections.singletonList((long) 2)));
+    e.setDependencies(new HashSet<>(Collections.singletonList((long) 6)));
+    testNetwork.insertNode(new ActivityNode(1, "A", "AA", 10, 15, 20));
+    testNetwork.insertNodes(Arrays.asList(b, c, d, e));
+
+    assertTrue(testNetwork.deleteNode(1));
+    assertEquals(0, testNetwork.retrieveNode(2).getDependencies().size());
+    assertEquals(0, testNetwork.retrieveNode(3).getDependencies().size());
+    assertEquals(Collections.singleton((long) 2), testNetwork.retrieveNode(4).getDependencies());
+
+    // E waits on node 6 until its dependencies change.
+    assertTrue(testNetwork.setDependencies(5, new HashSet<>()));
+    assertTrue(testNetwork.insertNode(new ActivityNode(6, "F", "FF", 10, 15, 20)));
+    assertEquals(5, testNetwork.getNodeList().get(3).getNodeId());
+    assertEquals(6, testNetwork.getNodeList().get(4).getNodeId());
+
+    assertTrue(testNetwork.insertNode(new ActivityNode(1, "A", "AA", 10, 15, 20)));
+    assertEquals(30, testNetwork.computeCriticalPathTime(), 1.0e-9);
+  }
+
+  /**
+   * Verify that indirect dependencies are found, in both directions, and that they follow dependency changes.
+   */
+  @Test
+  public void testUpstreamQueries() {
+    testNetwork.insertNode(new ActivityNode(1, "A", "AA", 10, 15, 20));
+    testNetwork.insertNode(new ActivityNode(2, "B", "BB", 10, 15, 20));
+    testNetwork.insertNode(new ActivityNode(3, "C", "CC", 10, 15, 20));
+    testNetwork.insertNode(new ActivityNode(4, "D", "DD", 10, 15, 20));
+    assertTrue(testNetwork.setDependencies(2, new HashSet<>(Collections.singletonList((long) 1))));
+    assertTrue(testNetwork.setDependencies(3, new HashSet<>(Collections.singletonList((long) 2))));
+
+    assertTrue(testNetwork.isUpstream(1, 2));
+    assertTrue(testNetwork.isUpstream(1, 3));
+    assertFalse(testNetwork.isUpstream(3, 1));
+    assertFalse(testNetwork.isUpstream(1, 4));
+    assertFalse(testNetwork.isUpstream(1, 1));
+    assertFalse(testNetwork.isUpstream(1, 5));
+
+    assertTrue(testNetwork.setDependencies(3, new HashSet<>(Collections.singletonList((long) 4))));
+    assertFalse(testNetwork.isUpstream(1, 3));
+    assertTrue(testNetwork.isUpstream(4, 3));
+  }
+
+  /**
+   * Verify that dependencies forming a cycle are rejected, and leave the network as it was.
+   */
+  @Test
+  public void testCyclicDependencies() {
+    testNetwork.insertNode(new ActivityNode(1, "A", "AA", 10, 15, 20));
+    testNetwork.insertNode(new ActivityNode(2, "B", "BB", 10, 15, 20));
+    testNetwork.insertNode(new ActivityNode(3, "C", "CC", 10, 15, 20));
+    assertTrue(testNetwork.setDependencies(2, new HashSet<>(Collections.singletonList((long) 1))));
+    assertTrue(testNetwork.setDependencies(3, new HashSet<>(Collections.singletonList((long) 2))));
+
+    assertFalse(testNetwork.setDependencies(1, new HashSet<>(Collections.singletonList((long) 3))));
+    assertFalse(testNetwork.setDependencies(1, new HashSet<>(Collections.singletonList((long) 1))));
+    assertEquals(0, testNetwork.retrieveNode(1).getDependencies().size());
+    assertEquals(Arrays.asList((long) 1, (long) 2, (long) 3), testNetwork.computeCriticalPath());
+
+    // A node that closes a cycle with the nodes waiting on it is not inserted.
+    ActivityNode d = new ActivityNode(4, "D", "DD", 10, 15, 20);
+    ActivityNode e = new ActivityNode(5, "E", "EE", 10, 15, 20);
+    d.setDependencies(new HashSet<>(Collections.singletonList((long) 5)));
+    e.setDependencies(new HashSet<>(Collections.singletonList((long) 4)));
+    assertTrue(testNetwork.insertNode(d));
+    assertFalse(testNetwork.insertNode(e));
+    assertFalse(testNetwork.isNodeInNetwork(5));
+    assertEquals(4, testNetwork.getNodeList().size());
+  }
+
+  /**
+   * Verify that the schedule is only recomputed after the network (or one of its nodes) has changed.
+   */
+  @Test
+  public void testScheduleCache() {
+    ActivityNode a = new ActivityNode(1, "A", "AA", 10, 15, 20);
+    assertTrue(testNetwork.insertNode(a));
+    assertTrue(testNetwork.insertNode(new ActivityNode(2, "B", "BB", 10, 15, 20)));
+
+    long version = testNetwork.getVersion();
+    NetworkSchedule s = testNetwork.computeSchedule();
+    assertSame(s, testNetwork.computeSchedule());
+    assertTrue(testNetwork.setHoursDeadline(20));
+    assertSame(s, testNetwork.computeSchedule());
+    assertEquals(version, testNetwork.getVersion());
+
+    // Changing the times of a node in the network invalidates the schedule. A schedule that was handed out is left as
+    // it was, while one that was only used inside the network is updated in place.
+    a.setNormalTime(21);
+    assertTrue(testNetwork.getVersion() > version);
+    assertEquals(15, s.getDuration(), 1.0e-9);
+    assertNotSame(s, testNetwork.computeSchedule());
+    assertEquals(19, testNetwork.computeCriticalPathTime(), 1.0e-9);
+    s = testNetwork.computeSchedule();
+    a.setNormalTime(24);
+    assertEquals(19, s.getDuration(), 1.0e-9);
+    assertEquals(21, testNetwork.computeCriticalPathTime(), 1.0e-9);
+    a.setNormalTime(21);
+    assertEquals(19, testNetwork.computeCriticalPathTime(), 1.0e-9);
+
+    // Failed changes do not.
+    s = testNetwork.computeSchedule();
+    assertFalse(testNetwork.setDependencies(2, new HashSet<>(Collections.singletonList((long) 3))));
+    assertFalse(testNetwork.deleteNode(3));
+    assertSame(s, testNetwork.computeSchedule());
+
+    assertTrue(testNetwork.setDependencies(2, new HashSet<>(Collections.singletonList((long) 1))));
+    assertEquals(34, testNetwork.computeCriticalPathTime(), 1.0e-9);
+  }
+
+  /**
+   * Verify that changes of times reach the schedule whether or not a schedule or graph has been computed in between.
+   */
+  @Test
+  public void testTimesFollowNodes() {
+    ActivityNode a = new ActivityNode(1, "A", "AA", 10, 10, 10), b = new ActivityNode(2, "B", "BB", 5, 5, 5);
+    b.setDependencies(new HashSet<>(Collections.singletonList((long) 1)));
+    testNetwork.insertNodes(Arrays.asList(a, b));
+
+    testNetwork.computeGraph();
+    a.setTimes(1, 1, 1);
+    b.setTimes(2, 2, 2);
+    assertEquals(3, testNetwork.computeCriticalPathTime(), 1.0e-9);
+
+    b.setTimes(4, 4, 4);
+    assertEquals(5, testNetwork.computeCriticalPathTime(), 1.0e-9);
+    assertTrue(testNetwork.insertNode(new ActivityNode(3, "C", "CC", 9, 9, 9)));
+    a.setTimes(3, 3, 3);
+    assertEquals(9, testNetwork.computeCriticalPathTime(), 1.0e-9);
+    assertEquals(7, testNetwork.computeEarliestFinishTime(2), 1.0e-9);
+  }
+
+  /**
+   * Verify that a node can be updated in place, that nodes depending on it keep their dependency, and that the schedule
+   * follows a change of times.
+   */
+  @Test
+  public void testNodeUpdate() {
+    testNetwork.insertNode(new ActivityNode(1, "A", "AA", 10, 10, 10));
+    testNetwork.insertNode(new ActivityNode(2, "B", "BB", 5, 5, 5));
+    testNetwork.insertNode(new ActivityNode(3, "C", "CC", 1, 1, 1));
+    assertTrue(testNetwork.setDependencies(3, new HashSet<>(Arrays.asList((long) 1, (long) 2))));
+    assertEquals(11, testNetwork.computeCriticalPathTime(), 1.0e-9);
+
+    ActivityNode b = testNetwork.retrieveNode(2);
+    b.setName("B2");
+    b.setTimes(20, 20, 20);
+    assertTrue(testNetwork.updateNode(b));
+    assertEquals("B2", testNetwork.nodeNameFromId(2));
+    assertEquals(21, testNetwork.computeCriticalPathTime(), 1.0e-9);
+    assertEquals(Arrays.asList((long) 2, (long) 3), testNetwork.computeCriticalPath());
+    assertEquals(10, testNetwork.computeTotalSlack(1), 1.0e-9);
+    assertTrue(testNetwork.retrieveNode(3).getDependencies().contains((long) 2));
+
+    // Invalid updates leave the node as it was.
+    b.setName("A");
+    assertFalse(testNetwork.updateNode(b));
+    b.setName("B2");
+    b.setDependencies(new HashSet<>(Collections.singletonList((long) 3)));
+    assertFalse(testNetwork.updateNode(b));
+    assertFalse(testNetwork.updateNode(new ActivityNode(4, "D", "DD", 1, 1, 1)));
+    assertEquals(0, testNetwork.retrieveNode(2).getDependencies().size());
+    assertEquals(21, testNetwork.computeCriticalPathTime(), 1.0e-9);
+  }
+
+  /**
+   * Verify that a chain of 100,000 activities, each depending on the one before, can be ordered, scheduled, and
+   * queried. A recursive traversal overflows the default thread stack well before this depth, but none of ours recurse.
+   */
+  @Test
+  public void testLongDependencyChain() {
+    int n = 100000;
+    for (long i = 0; i < n; i++) {
+      ActivityNode node = new ActivityNode(i, Long.toString(i), "", 1, 1, 1);
+      if (i > 0) {
+        node.setDependencies(Collections.singleton(i - 1));
+      }
+      assertTrue(testNetwork.insertNode(node));
+    }
+
+    assertEquals(n, testNetwork.computeCriticalPathTime(), 1.0e-6);
+    assertEquals(n, testNetwork.computeCriticalPath().size());
+    assertEquals(0, testNetwork.computeTotalSlack(n / 2), 1.0e-6);
+    assertTrue(testNetwork.isUpstream(0, n - 1));
+    assertFalse(testNetwork.isUpstream(n - 1, 0));
+
+    // Changing the first activity moves every activity after it.
+    testNetwork.getNodeList().get(0).setNormalTime(4);
+    assertEquals(n + 2, testNetwork.computeCriticalPathTime(), 1.0e-6);
+    assertEquals(n + 2, testNetwork.computeEarliestFinishTime(n - 1), 1.0e-6);
+  }
+
+  /**
+   * Verify that recomputing the schedule after a change of times allocates the schedule arrays and nothing per node
+   * beyond them (the arrays, including a copy of the expected times, take 44 bytes per node). Skipped if the JVM cannot
+   * measure allocations.
+   */
+  @Test
+  public void testScheduleAllocations() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    // Skipped (rather than passed) on a JVM that cannot measure the allocations of a thread.
+    Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean &&
+        ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported());
+    com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+
+    int n = 100000;
+    for (long i = 0; i < n; i++) {
+      ActivityNode node = new ActivityNode(i, Long.toString(i), "", 1, 2, 3);
+      if (i > 0) {
+        node.setDependencies(Collections.singleton(i / 2));
+      }
+      testNetwork.insertNode(node);
+    }
+
+    // Build the graph but not the schedule, so that the change of times below leaves the schedule to be recomputed.
+    testNetwork.computeGraph();
+    testNetwork.getNodeList().get(0).setNormalTime(3);
+
+    long before = allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+    NetworkSchedule s = testNetwork.computeSchedule();
+    long allocated = allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+
+    assertTrue(s.containsNode(n - 1));
+    assertTrue("Allocated " + allocated + " bytes", allocated < 48L * n + 65536);
+  }
+}
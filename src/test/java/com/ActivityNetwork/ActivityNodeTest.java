@@ -60,6 +60,20 @@ public class ActivityNodeTest {
     assertEquals((21 + 11 * 4 + 4) / 6.0, testNode.getTimes()[3], Math.ulp((21 + 11 * 4 + 4) / 6.0));
   }
 
+  /**
+   * Verify that the accessors for each time match the times returned all at once.
+   */
+  @Test
+  public void testTimeAccessors() {
+    testNode.setTimes(4, 11, 21);
+    double[] times = testNode.getTimes();
+
+    assertEquals(4, testNode.getOptimisticTime(), Math.ulp(4.0));
+    assertEquals(times[1], testNode.getNormalTime(), Math.ulp(times[1]));
+    assertEquals(times[2], testNode.getPessimisticTime(), Math.ulp(times[2]));
+    assertEquals((21 + 11 * 4 + 4) / 6.0, testNode.getExpectedTime(), Math.ulp(times[3]));
+  }
+
   /**
    * Verify that the dependencies are set correctly when the node IDs in the dependency set do not contain the node
    * ID itself, and that the inverse does not occur (node ID in dependency set).
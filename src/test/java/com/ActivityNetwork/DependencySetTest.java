@@ -0,0 +1,54 @@
+package com.ActivityNetwork;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class DependencySetTest {
+  /**
+   * Verify that IDs are kept sorted and unique, whether they are added one by one or all at once.
+   */
+  @Test
+  public void testAddAndRemove() {
+    DependencySet s = new DependencySet(Arrays.asList((long) 5, (long) 1, (long) 5, (long) 3));
+    assertEquals(3, s.size());
+    assertEquals("1, 3, 5", s.join(", "));
+
+    assertTrue(s.add(4));
+    assertFalse(s.add(4));
+    assertTrue(s.add(0));
+    assertEquals("0, 1, 3, 4, 5", s.join(", "));
+
+    assertTrue(s.remove(3));
+    assertFalse(s.remove(3));
+    assertFalse(s.contains(3));
+    assertTrue(s.contains(4));
+    assertEquals(0, s.get(0));
+    assertEquals(5, s.get(3));
+  }
+
+  /**
+   * Verify that the set behaves as a set of Long objects.
+   */
+  @Test
+  public void testSetView() {
+    DependencySet s = new DependencySet(Arrays.asList((long) 2, (long) 1));
+    assertEquals(new HashSet<>(Arrays.asList((long) 1, (long) 2)), s);
+    assertEquals(s, new HashSet<>(Arrays.asList((long) 1, (long) 2)));
+    assertTrue(s.contains((Object) 2L));
+    assertFalse(s.contains("2"));
+    assertEquals("[1, 2]", s.toString());
+
+    Iterator<Long> i = s.iterator();
+    assertEquals(Long.valueOf(1), i.next());
+    i.remove();
+    assertEquals(Long.valueOf(2), i.next());
+    assertFalse(i.hasNext());
+    assertEquals(new DependencySet(Collections.singletonList((long) 2)), s);
+  }
+}
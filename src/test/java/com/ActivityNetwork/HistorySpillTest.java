@@ -0,0 +1,111 @@
+package com.ActivityNetwork;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class HistorySpillTest {
+  /** Spill for all tests to operate on, with small segments. */
+  private HistorySpill s;
+
+  /**
+   * Create a spill with 256-byte segments for all tests to operate on.
+   */
+  @Before
+  public void createTestSpill() {
+    s = new HistorySpill(256);
+  }
+
+  /**
+   * Delete the spill file.
+   */
+  @After
+  public void closeTestSpill() {
+    s.close();
+  }
+
+  /**
+   * Verify that deltas are read back as they were written, whether they fit in a segment or need one of their own.
+   */
+  @Test
+  public void testReadBack() {
+    ActivityNetwork a = new ActivityNetwork(1, "A"), b = a.twin();
+    b.insertNode(new ActivityNode(1, "N\u00e9", "D", 1, 2, 3));
+    b.insertNode(new ActivityNode(2, "M", "", 4, 5, 6));
+    b.setDependencies(2, java.util.Collections.singleton(1L));
+    b.setHoursDeadline(20);
+    NetworkDelta small = NetworkDelta.between(a, b);
+
+    ActivityNetwork c = b.twin();
+    for (int i = 3; i < 40; i++) {
+      c.insertNode(new ActivityNode(i, "N" + i, "Description " + i, 1, 1, 1));
+    }
+    NetworkDelta large = NetworkDelta.between(b, c);
+
+    long[] positions = new long[30];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = s.write((i % 10 == 9) ? large : small);
+      assertTrue(positions[i] >= 0);
+    }
+
+    for (int i = 0; i < positions.length; i++) {
+      NetworkDelta d = s.read(positions[i]);
+      if (i % 10 == 9) {
+        assertEquals(37, d.size());
+        assertEquals(39, d.applyTo(b, true).getNodes().size());
+        assertEquals(2, d.applyTo(c, false).getNodes().size());
+      } else {
+        ActivityNetwork e = d.applyTo(a, true);
+        assertEquals("N\u00e9", e.nodeNameFromId(1));
+        assertEquals(5, e.viewNode(2).getNormalTime(), 0);
+        assertTrue(e.isUpstream(1, 2));
+        assertEquals(20, e.getHoursDeadline(), 0);
+        assertEquals(0, d.applyTo(e, false).getNodes().size());
+      }
+    }
+    assertTrue(s.getFileBytes() > 256);
+  }
+
+  /**
+   * Verify that the bytes of freed deltas are no longer counted as used, and that a spill is mostly free once its
+   * freed bytes outweigh its used bytes by more than a segment, or once none of its deltas are used.
+   */
+  @Test
+  public void testFree() {
+    ActivityNetwork a = new ActivityNetwork(1, "A"), b = a.twin();
+    b.insertNode(new ActivityNode(1, "N", "D", 1, 2, 3));
+    NetworkDelta d = NetworkDelta.between(a, b);
+    assertFalse(s.isMostlyFree());
+
+    long[] positions = new long[40];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = s.write(d);
+    }
+    long live = s.getLiveBytes();
+    assertEquals(0, live % positions.length);
+    assertFalse(s.isMostlyFree());
+
+    for (int i = 0; i < 30; i++) {
+      s.free(positions[i]);
+    }
+    assertEquals(live / 4, s.getLiveBytes());
+    assertTrue(s.isMostlyFree());
+    assertEquals(1, s.read(positions[30]).applyTo(a, true).nodeIdFromName("N"));
+
+    for (int i = 30; i < positions.length; i++) {
+      s.free(positions[i]);
+    }
+    assertEquals(0, s.getLiveBytes());
+    assertTrue(s.isMostlyFree());
+  }
+
+  /**
+   * Verify that nothing is written once the spill is closed.
+   */
+  @Test
+  public void testClose() {
+    ActivityNetwork a = new ActivityNetwork(1, "A");
+    s.close();
+    assertEquals(-1, s.write(NetworkDelta.between(a, a)));
+  }
+}
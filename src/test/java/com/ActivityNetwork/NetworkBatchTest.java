@@ -0,0 +1,122 @@
+package com.ActivityNetwork;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class NetworkBatchTest {
+  /** Test network for all tests to operate on. */
+  private ActivityNetwork testNetwork;
+
+  /**
+   * Create a test network for all tests to operate on. Node 2 depends on node 1.
+   */
+  @Before
+  public void createTestNetwork() {
+    testNetwork = new ActivityNetwork(123, "Sample Project");
+    testNetwork.insertNode(new ActivityNode(1, "A", "AA", 10, 15, 20));
+    testNetwork.insertNode(new ActivityNode(2, "B", "BB", 10, 15, 20));
+    testNetwork.setDependencies(2, new HashSet<>(Collections.singletonList((long) 1)));
+  }
+
+  /**
+   * Verify that insertions, deletions and dependency changes are all applied, and that the result is sorted.
+   */
+  @Test
+  public void testApplyBatch() {
+    ActivityNode c = new ActivityNode(3, "C", "CC", 10, 15, 20);
+    c.setDependencies(new HashSet<>(Collections.singletonList((long) 4)));
+
+    NetworkBatch batch = new NetworkBatch();
+    batch.insertNodes(Arrays.asList(c, new ActivityNode(4, "D", "DD", 10, 15, 20)));
+    batch.setDependencies(1, new HashSet<>(Collections.singletonList((long) 3)));
+    batch.deleteNode(2);
+    assertEquals(4, batch.size());
+
+    assertTrue(testNetwork.applyBatch(batch));
+    assertEquals(3, testNetwork.getNodeList().size());
+    assertFalse(testNetwork.isNodeInNetwork(2));
+    assertEquals(Arrays.asList((long) 4, (long) 3, (long) 1), testNetwork.computeCriticalPath());
+    assertEquals(4, testNetwork.getStartNodeId());
+  }
+
+  /**
+   * Verify that a batch with one bad change (or a cycle) leaves the network as it was.
+   */
+  @Test
+  public void testRejectedBatch() {
+    NetworkBatch batch = new NetworkBatch();
+    batch.insertNode(new ActivityNode(3, "C", "CC", 10, 15, 20));
+    batch.insertNode(new ActivityNode(4, "A", "DD", 10, 15, 20));
+    assertFalse(testNetwork.applyBatch(batch));
+    assertFalse(testNetwork.isNodeInNetwork(3));
+
+    batch = new NetworkBatch();
+    batch.deleteNode(1);
+    batch.setDependencies(2, new HashSet<>(Collections.singletonList((long) 1)));
+    assertFalse(testNetwork.applyBatch(batch));
+    assertTrue(testNetwork.isNodeInNetwork(1));
+
+    batch = new NetworkBatch();
+    batch.setDependencies(1, new HashSet<>(Collections.singletonList((long) 2)));
+    assertFalse(testNetwork.applyBatch(batch));
+    assertEquals(0, testNetwork.retrieveNode(1).getDependencies().size());
+    assertEquals(Collections.singleton((long) 1), testNetwork.retrieveNode(2).getDependencies());
+  }
+
+  /**
+   * Verify that a batch behaves like the same changes applied one at a time: deleting a node removes it from the
+   * dependencies of the existing nodes, even if a node with the same ID is inserted afterwards.
+   */
+  @Test
+  public void testDeleteThenInsert() {
+    NetworkBatch batch = new NetworkBatch();
+    batch.deleteNode(1);
+    batch.insertNode(new ActivityNode(1, "A", "New A", 1, 1, 1));
+
+    assertTrue(testNetwork.applyBatch(batch));
+    assertEquals("New A", testNetwork.retrieveNode(1).getDescription());
+    assertEquals(0, testNetwork.retrieveNode(2).getDependencies().size());
+    assertEquals(15, testNetwork.computeCriticalPathTime(), 1.0e-9);
+  }
+
+  /**
+   * Verify that a batch can be applied to more than one network, and that the networks do not share the dependencies
+   * it sets.
+   */
+  @Test
+  public void testReuseBatch() {
+    ActivityNetwork a = testNetwork.twin();
+    testNetwork.insertNode(new ActivityNode(3, "C", "CC", 10, 15, 20));
+    a.insertNode(new ActivityNode(3, "C", "CC", 10, 15, 20));
+
+    NetworkBatch batch = new NetworkBatch();
+    batch.setDependencies(3, new HashSet<>(Collections.singletonList((long) 2)));
+    assertTrue(testNetwork.applyBatch(batch));
+    assertTrue(a.applyBatch(batch));
+
+    // Deleting node 2 purges it from the dependencies of node 3 in this network only.
+    assertTrue(testNetwork.deleteNode(2));
+    assertEquals(0, testNetwork.retrieveNode(3).getDependencies().size());
+    assertEquals(Collections.singleton((long) 2), a.retrieveNode(3).getDependencies());
+    assertEquals(Collections.singleton((long) 2), batch.getChanges().get(0).dependencies);
+  }
+
+  /**
+   * Verify that inserting many nodes at once keeps their order if they are already sorted.
+   */
+  @Test
+  public void testInsertNodes() {
+    ActivityNetwork a = new ActivityNetwork(1, "Copy");
+    assertTrue(a.insertNodes(testNetwork.twin().getNodeList()));
+    assertEquals(1, a.getStartNodeId());
+    assertEquals(2, a.getNodeList().get(1).getNodeId());
+
+    assertFalse(a.insertNodes(Collections.singletonList(new ActivityNode(1, "E", "EE", 1, 1, 1))));
+    assertEquals(2, a.getNodeList().size());
+  }
+}
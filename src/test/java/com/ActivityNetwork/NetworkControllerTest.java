@@ -45,6 +45,82 @@ public class NetworkControllerTest {
     assertEquals(0, nc.retrieveNetwork(-1).getNetworkId());
   }
 
+  /**
+   * Verify that a view shows the latest instance of the network without being a network, until the network changes.
+   */
+  @Test
+  public void testViewNetwork() {
+    NetworkController nc = new NetworkController(userInfo.get(0), userInfo.get(1), userInfo.get(2));
+    long networkID = nc.createNetwork("Test Network");
+
+    ActivityNetwork a = nc.retrieveNetwork(networkID);
+    a.insertNode(new ActivityNode(0, "Working Wings", "Wings are working", 5, 10, 15));
+    assertEquals(true, nc.modifyNetwork(a));
+
+    ActivityNetworkView v = nc.viewNetwork(networkID);
+    assertFalse(v instanceof ActivityNetwork);
+    assertEquals(1, v.getNodes().size());
+    assertEquals("Working Wings", v.getNodes().get(0).getName());
+
+    // A view is only valid until the network is changed again.
+    a = nc.retrieveNetwork(networkID);
+    a.deleteNode(0);
+    assertEquals(true, nc.modifyNetwork(a));
+    try {
+      v.getNodes();
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals(0, nc.viewNetwork(networkID).getNodes().size());
+    }
+    assertEquals(0, nc.viewNetwork(-1).getNetworkId());
+  }
+
+  /**
+   * Verify that earlier instances of a network are found by their timestamps.
+   */
+  @Test
+  public void testRetrieveNetworkAt() throws InterruptedException {
+    NetworkController nc = new NetworkController(userInfo.get(0), userInfo.get(1), userInfo.get(2));
+    long networkID = nc.createNetwork("Test Network");
+    long t0 = nc.retrieveTimestamp(networkID);
+
+    Thread.sleep(2);
+    ActivityNetwork a = nc.retrieveNetwork(networkID);
+    a.insertNode(new ActivityNode(0, "Working Wings", "Wings are working", 5, 10, 15));
+    assertEquals(true, nc.modifyNetwork(a));
+    long t1 = nc.retrieveTimestamp(networkID);
+
+    assertEquals(0, nc.retrieveNetworkAt(networkID, t0).getNodes().size());
+    assertEquals(0, nc.retrieveNetworkAt(networkID, t1 - 1).getNodes().size());
+    assertEquals(1, nc.retrieveNetworkAt(networkID, t1).getNodes().size());
+    assertEquals(0, nc.retrieveNetworkAt(networkID, t0 - 1).getNetworkId());
+    assertArrayEquals(new long[]{t0, t1}, nc.retrieveTimestamps(networkID, t0, t1));
+    assertEquals(0, nc.retrieveTimestamps(-1, t0, t1).length);
+  }
+
+  /**
+   * Verify that the changes made during an edit transaction are merged into a single version.
+   */
+  @Test
+  public void testEditTransaction() {
+    NetworkController nc = new NetworkController(userInfo.get(0), userInfo.get(1), userInfo.get(2));
+    long networkID = nc.createNetwork("Test Network");
+
+    assertEquals(true, nc.beginEdit(networkID));
+    ActivityNetwork a = nc.retrieveNetwork(networkID);
+    a.insertNode(new ActivityNode(0, "Working Wings", "Wings are working", 5, 10, 15));
+    assertEquals(true, nc.modifyNetwork(a));
+    a.insertNode(new ActivityNode(1, "Working Wheels", "Wheels are working", 5, 10, 15));
+    assertEquals(true, nc.modifyNetwork(a));
+    assertEquals(2, nc.viewNetwork(networkID).getNodes().size());
+    assertEquals(true, nc.endEdit(networkID));
+    assertEquals(false, nc.endEdit(networkID));
+
+    assertEquals(true, nc.undoNetworkChange(networkID));
+    assertEquals(0, nc.viewNetwork(networkID).getNodes().size());
+    assertEquals(false, nc.beginEdit(-1));
+  }
+
   /**
    * Verify that the chain adding method adds links as intended, and performs FIFO when we reach our defined limit.
    */
@@ -64,6 +140,39 @@ public class NetworkControllerTest {
     assertEquals((long) networkIDList.get(1), nc.retrieveNetwork(networkIDList.get(1)).getNetworkId());
   }
 
+  /**
+   * Verify that without a chain length, undo stops at the default limit of 150 versions (older versions are spilled
+   * before that), that the spill file is deleted along with the last network that used it, and that a closed
+   * controller no longer holds any network.
+   */
+  @Test
+  public void testDefaultChainAndClose() {
+    NetworkController nc = new NetworkController(userInfo.get(0), userInfo.get(1), userInfo.get(2));
+    long networkID = nc.createNetwork("Test Network");
+
+    ActivityNetwork a = nc.retrieveNetwork(networkID);
+    for (int i = 0; i < 200; i++) {
+      a.insertNode(new ActivityNode(i, "N" + i, "", 1, 2, 3));
+      assertEquals(true, nc.modifyNetwork(a));
+    }
+    assertTrue(nc.getSpillBytes() > 0);
+
+    int undone = 0;
+    while (nc.undoNetworkChange(networkID)) {
+      undone++;
+    }
+    assertTrue(undone > 100 && undone < 200);
+    assertEquals(true, nc.redoNetworkChange(networkID));
+    assertEquals(networkID, nc.retrieveNetwork(networkID).getNetworkId());
+
+    assertEquals(true, nc.deleteNetwork(networkID));
+    assertEquals(0, nc.getSpillBytes());
+
+    long otherID = nc.createNetwork("Other Network");
+    nc.close();
+    assertEquals(0, nc.retrieveNetwork(otherID).getNetworkId());
+  }
+
   /**
    * Verify that the network modification method only works with networks that are currently in the network chain.
    */
@@ -0,0 +1,80 @@
+package com.ActivityNetwork;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class NetworkGraphTest {
+  /**
+   * Verify that the dependencies and successors of each node are resolved to node indices, and that dependencies on
+   * unknown nodes are left out.
+   */
+  @Test
+  public void testAdjacency() {
+    List<DependencySet> dependencies = Arrays.asList(new DependencySet(),
+        new DependencySet(Collections.singletonList((long) 10)),
+        new DependencySet(Arrays.asList((long) 10, (long) 20, (long) 99)));
+    NetworkGraph g = new NetworkGraph(new long[]{10, 20, 30}, dependencies);
+
+    assertEquals(3, g.size());
+    assertEquals(2, g.indexOf(30));
+    assertEquals(-1, g.indexOf(99));
+    assertArrayEquals(new int[]{0, 0, 1, 3}, g.getDependencyOffsets());
+    assertArrayEquals(new int[]{0, 2, 3, 3}, g.getSuccessorOffsets());
+    assertArrayEquals(new int[]{1, 2, 2}, g.getSuccessors());
+  }
+
+  /**
+   * Verify that sorting keeps the current order where possible, and that cycles are found.
+   */
+  @Test
+  public void testSort() {
+    List<DependencySet> dependencies = Arrays.asList(new DependencySet(Collections.singletonList((long) 3)),
+        new DependencySet(), new DependencySet());
+    NetworkGraph g = new NetworkGraph(new long[]{1, 2, 3}, dependencies);
+    assertArrayEquals(new int[]{1, 2, 0}, g.sort());
+
+    dependencies.get(1).add((long) 1);
+    dependencies.get(2).add((long) 2);
+    assertNull(new NetworkGraph(new long[]{1, 2, 3}, dependencies).sort());
+  }
+
+  /**
+   * Verify that reordering a graph into its sorted order moves the node IDs and remaps every dependency.
+   */
+  @Test
+  public void testReorder() {
+    NetworkGraph g = new NetworkGraph(new long[]{1, 2, 3}, new int[]{0, 1, 1, 1}, new long[]{3});
+    NetworkGraph sorted = g.reorder(g.sort());
+
+    assertArrayEquals(new long[]{2, 3, 1}, sorted.getNodeIds());
+    assertEquals(2, sorted.indexOf(1));
+    assertArrayEquals(new int[]{0, 0, 0, 1}, sorted.getDependencyOffsets());
+    assertArrayEquals(new int[]{1}, sorted.getDependencies());
+    assertArrayEquals(new int[]{2}, sorted.getSuccessors());
+    assertSame(sorted, sorted.reorder(sorted.sort()));
+  }
+
+  /**
+   * Verify reachability on a chain 1 -> 2 -> 3 with a side branch 1 -> 4, where node 5 is unconnected.
+   */
+  @Test
+  public void testReaches() {
+    List<DependencySet> dependencies = Arrays.asList(new DependencySet(),
+        new DependencySet(Collections.singletonList((long) 1)), new DependencySet(Collections.singletonList((long) 2)),
+        new DependencySet(Collections.singletonList((long) 1)), new DependencySet());
+    NetworkGraph g = new NetworkGraph(new long[]{1, 2, 3, 4, 5}, dependencies);
+
+    assertTrue(g.reaches(0, 1));
+    assertTrue(g.reaches(0, 2));
+    assertTrue(g.reaches(0, 3));
+    assertFalse(g.reaches(1, 3));
+    assertFalse(g.reaches(2, 0));
+    assertFalse(g.reaches(0, 4));
+    assertFalse(g.reaches(0, 0));
+  }
+}
@@ -0,0 +1,416 @@
+package com.ActivityNetwork;
+
+import org.junit.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NetworkHistoryTest {
+  /** History for all tests to operate on. */
+  private NetworkHistory h;
+
+  /**
+   * Create an empty history for all tests to operate on.
+   */
+  @Before
+  public void createTestHistory() {
+    h = new NetworkHistory(1);
+  }
+
+  /**
+   * Describe every field of the given network and of its nodes, ordered by node ID.
+   *
+   * @param a Network to describe.
+   * @return The description of the network.
+   */
+  private static String describe(ActivityNetworkView a) {
+    StringBuilder s = new StringBuilder(a.getNetworkId() + " " + a.getHoursDeadline());
+    a.getNodes().stream().sorted(java.util.Comparator.comparingLong(ActivityNodeView::getNodeId)).forEach(n ->
+        s.append(" | ").append(n.getNodeId()).append(n.getName()).append(n.getDescription())
+            .append(n.getOptimisticTime()).append(n.getNormalTime()).append(n.getPessimisticTime())
+            .append(n.getDependencyIds()));
+    return s.toString();
+  }
+
+  /**
+   * Verify that undo and redo move versions between the end of the history and the undone versions, and that
+   * recording a new version discards the undone ones.
+   */
+  @Test
+  public void testUndoRedo() {
+    ActivityNetwork a = new ActivityNetwork(1, "A");
+    h.record(a, 10);
+    a.insertNode(new ActivityNode(1, "B", "", 1, 2, 3));
+    NetworkHistory.Version v = h.record(a, 20);
+    assertEquals(1, h.latestNetwork().getNodes().size());
+    assertEquals(2, h.size());
+
+    assertSame(v, h.undo());
+    assertFalse(v.live);
+    assertEquals(0, h.latestNetwork().getNodes().size());
+    assertEquals(1, h.size());
+
+    NetworkHistory.Version w = h.redo();
+    assertEquals("B", h.latestNetwork().nodeNameFromId(1));
+    assertEquals(20, w.timestamp);
+    assertTrue(w.live);
+    assertNull(v.delta);
+    assertNull(h.redo());
+
+    h.undo();
+    a.renameNode(1, "C");
+    h.record(a, 30);
+    assertNull(h.redo());
+    assertEquals("C", h.latestNetwork().nodeNameFromId(1));
+    assertEquals(10, h.oldest().timestamp);
+
+    // Undo every version, then redo them all.
+    h.undo();
+    h.undo();
+    assertNull(h.undo());
+    assertNull(h.latestNetwork());
+    h.redo();
+    assertEquals(0, h.latestNetwork().getNodes().size());
+    h.redo();
+    assertEquals("C", h.latestNetwork().nodeNameFromId(1));
+  }
+
+  /**
+   * Verify that a network the history no longer holds is released, so that the recorded network does not copy its
+   * nodes for it on its next change, while the networks the history still holds keep their values.
+   */
+  @Test
+  public void testReleasesDroppedNetworks() {
+    ActivityNetwork a = new ActivityNetwork(1, "A");
+    a.insertNode(new ActivityNode(1, "B", "", 1, 2, 3));
+    h.record(a, 10);
+    a.insertNode(new ActivityNode(2, "C", "", 1, 2, 3));
+    h.record(a, 20);
+    ActivityNetwork dropped = h.latestNetwork();
+    h.record(a, 30);
+
+    a.renameNode(1, "D");
+    assertEquals("D", dropped.nodeNameFromId(1));
+    assertEquals("B", h.latestNetwork().nodeNameFromId(1));
+    h.undo();
+    h.undo();
+    assertEquals(1, h.latestNetwork().getNodes().size());
+    assertEquals("B", h.latestNetwork().nodeNameFromId(1));
+  }
+
+  /**
+   * Verify that each version only holds the nodes that changed, and that undoing and redoing every change (node
+   * insertions, deletions, times, dependencies, names and deadlines) gives back each recorded network.
+   */
+  @Test
+  public void testDeltas() {
+    ActivityNetwork a = new ActivityNetwork(1, "A");
+    ArrayList<String> expected = new ArrayList<>();
+    Random random = new Random(7);
+    for (int i = 0; i < 60; i++) {
+      long nodeId = 1 + random.nextInt(20);
+      switch (random.nextInt(5)) {
+        case 0:
+          a.insertNode(new ActivityNode(nodeId, "N" + nodeId, "D" + i, 1, 2, 3));
+          break;
+        case 1:
+          a.deleteNode(nodeId);
+          break;
+        case 2:
+          ActivityNode n = a.retrieveNode(nodeId);
+          n.setTimes(i, i + 1, i + 2);
+          a.updateNode(n);
+          break;
+        case 3:
+          a.setDependencies(nodeId, Collections.singleton((long) 1 + random.nextInt(20)));
+          break;
+        default:
+          a.setHoursDeadline(a.computeCriticalPathTime() + i);
+      }
+
+      h.record(a, i);
+      expected.add(describe(a));
+    }
+
+    // A single change only holds the changed node.
+    a.insertNode(new ActivityNode(100, "X", "", 1, 1, 1));
+    h.record(a, 60);
+    assertEquals(1, h.latest().delta.size());
+    h.undo();
+
+    for (int i = expected.size() - 1; i >= 0; i--) {
+      assertEquals(expected.get(i), describe(h.latestNetwork()));
+      h.undo();
+    }
+    for (String e : expected) {
+      h.redo();
+      assertEquals(e, describe(h.latestNetwork()));
+    }
+  }
+
+  /**
+   * Verify that a delta applied to a network it was not taken from fails loudly, rather than giving an empty network.
+   */
+  @Test
+  public void testDeltaMismatch() {
+    ActivityNetwork a = new ActivityNetwork(1, "A");
+    ActivityNetwork b = a.twin();
+    b.insertNode(new ActivityNode(2, "X", "", 1, 2, 3));
+    NetworkDelta d = NetworkDelta.between(a, b);
+    assertEquals(1, d.applyTo(a, true).getNodes().size());
+
+    ActivityNetwork c = new ActivityNetwork(1, "A");
+    c.insertNode(new ActivityNode(3, "X", "", 1, 2, 3));
+    try {
+      d.applyTo(c, true);
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals(1, c.getNodes().size());
+    }
+  }
+
+  /**
+   * Verify that merging changes into the latest version combines their deltas, so that a single undo reverts all of
+   * them, and that changes that cancel out are left out of the delta.
+   */
+  @Test
+  public void testAmend() {
+    ActivityNetwork a = new ActivityNetwork(1, "A");
+    a.insertNode(new ActivityNode(1, "B", "", 1, 2, 3));
+    h.record(a, 10);
+    String original = describe(a);
+
+    a.insertNode(new ActivityNode(2, "C", "", 1, 2, 3));
+    h.record(a, 20);
+    a.insertNode(new ActivityNode(3, "D", "", 1, 2, 3));
+    a.setDependencies(3, Collections.singleton(2L));
+    assertSame(h.latest(), h.amend(a, 30));
+    a.deleteNode(2);
+    ActivityNode n = a.retrieveNode(1);
+    n.setTimes(4, 5, 6);
+    a.updateNode(n);
+    h.amend(a, 25);
+    String edited = describe(a);
+
+    assertEquals(2, h.size());
+    assertEquals(30, h.latest().timestamp);
+    assertEquals(edited, describe(h.latestNetwork()));
+    assertEquals(2, h.latest().delta.size());
+
+    h.undo();
+    assertEquals(original, describe(h.latestNetwork()));
+    h.redo();
+    assertEquals(edited, describe(h.latestNetwork()));
+
+    // Changes merged into the oldest version replace its whole network.
+    NetworkHistory g = new NetworkHistory(2);
+    ActivityNetwork b = new ActivityNetwork(2, "B");
+    g.record(b, 0);
+    b.insertNode(new ActivityNode(1, "B", "", 1, 2, 3));
+    g.amend(b, 1);
+    assertEquals(1, g.size());
+    assertEquals(1, g.latestNetwork().getNodes().size());
+    g.undo();
+    g.redo();
+    assertEquals(1, g.latestNetwork().getNodes().size());
+  }
+
+  /**
+   * Verify that the estimated size of a history follows its versions, and that a history whose checkpoints were all
+   * dropped can still undo and redo every version.
+   */
+  @Test
+  public void testBytes() {
+    ActivityNetwork a = new ActivityNetwork(1, "A");
+    h.record(a, 0);
+    assertEquals(a.estimateBytes(), h.getBytes());
+
+    // The whole network kept by the oldest version is the latest network as well, so it is only counted once.
+    h.undo();
+    assertEquals(a.estimateBytes(), h.getBytes());
+    h.redo();
+    assertEquals(a.estimateBytes(), h.getBytes());
+
+    for (int i = 1; i <= 40; i++) {
+      a.insertNode(new ActivityNode(i, "N" + i, "", 1, 2, 3));
+      a.setDependencies(i, Collections.singleton((long) i / 2));
+      h.record(a, i);
+    }
+    long bytes = h.getBytes();
+    assertTrue(bytes > 3 * a.estimateBytes());
+
+    // Undo and redo keep the same versions.
+    h.undo();
+    h.redo();
+    assertEquals(bytes, h.getBytes());
+
+    for (int i = 0; i <= 40; i += NetworkHistory.CHECKPOINT_INTERVAL) {
+      while (h.oldest().timestamp < i) {
+        h.dropOldest();
+      }
+      h.dropCheckpoint(h.oldest());
+    }
+    h.dropCheckpoint(h.latest());
+    assertTrue(h.getBytes() < bytes - 2 * a.estimateBytes());
+
+    while (h.size() > 1) {
+      h.undo();
+    }
+    assertEquals(32, h.latestNetwork().getNodes().size());
+    while (h.redo() != null) {
+      assertEquals(h.latest().timestamp, h.latestNetwork().getNodes().size());
+    }
+
+    // Once only the latest version is left, only the latest network is counted.
+    while (h.size() > 1) {
+      h.dropOldest();
+    }
+    h.dropCheckpoint(h.latest());
+    assertEquals(a.estimateBytes(), h.getBytes());
+    h.clear();
+    assertEquals(0, h.getBytes());
+  }
+
+  /**
+   * Verify that only the latest versions are kept in memory once a history has a spill, and that undo and redo read the
+   * older versions back.
+   */
+  @Test
+  public void testSpill() {
+    HistorySpill spill = new HistorySpill(4096);
+    NetworkHistory g = new NetworkHistory(1, spill);
+    ActivityNetwork a = new ActivityNetwork(1, "A");
+    g.record(a, 0);
+    h.record(a, 0);
+    for (int i = 1; i <= 200; i++) {
+      a.insertNode(new ActivityNode(i, "N" + i, "", 1, 2, 3));
+      g.record(a, i);
+      h.record(a, i);
+    }
+    assertTrue(spill.getFileBytes() > 0);
+
+    // The older versions, and their checkpoints, are no longer in memory.
+    assertTrue(g.getBytes() < h.getBytes() / 2);
+
+    while (g.size() > 1) {
+      g.undo();
+      assertEquals(g.latest().timestamp, g.latestNetwork().getNodes().size());
+    }
+    while (g.redo() != null) {
+      assertEquals(g.latest().timestamp, g.latestNetwork().getNodes().size());
+    }
+    spill.close();
+  }
+
+  /**
+   * Verify that spilled deltas are freed once their versions are dropped or cleared, and that a history still undoes
+   * and redoes its spilled versions once they were moved to another spill.
+   */
+  @Test
+  public void testMoveSpill() {
+    HistorySpill spill = new HistorySpill(4096), fresh = new HistorySpill(4096);
+    NetworkHistory g = new NetworkHistory(1, spill);
+    ActivityNetwork a = new ActivityNetwork(1, "A");
+    g.record(a, 0);
+    for (int i = 1; i <= 100; i++) {
+      a.insertNode(new ActivityNode(i, "N" + i, "", 1, 2, 3));
+      g.record(a, i);
+    }
+    long live = spill.getLiveBytes();
+    assertTrue(live > 0);
+
+    // Dropping the oldest versions frees their deltas, and the delta of the new oldest version.
+    for (int i = 0; i < 20; i++) {
+      g.dropOldest();
+    }
+    assertTrue(spill.getLiveBytes() < live);
+
+    // Undone versions keep their deltas, which move along with the recorded ones.
+    g.undo();
+    live = spill.getLiveBytes();
+    g.moveTo(fresh);
+    spill.close();
+    assertEquals(live, fresh.getLiveBytes());
+    while (g.size() > 1) {
+      g.undo();
+      assertEquals(g.latest().timestamp, g.latestNetwork().getNodes().size());
+    }
+    while (g.redo() != null) {
+      assertEquals(g.latest().timestamp, g.latestNetwork().getNodes().size());
+    }
+    assertEquals(100, g.latestNetwork().getNodes().size());
+
+    g.clear();
+    assertEquals(0, fresh.getLiveBytes());
+    assertTrue(fresh.isMostlyFree());
+    fresh.close();
+  }
+
+  /**
+   * Verify that the version of a network as of any time is found and rebuilt, whether it is the latest version, a
+   * checkpoint, or a version whose delta was spilled, and that versions are listed by time range.
+   */
+  @Test
+  public void testTimeTravel() {
+    HistorySpill spill = new HistorySpill(4096);
+    NetworkHistory g = new NetworkHistory(1, spill);
+    ActivityNetwork a = new ActivityNetwork(1, "A");
+    ArrayList<String> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      a.insertNode(new ActivityNode(i, "N" + i, "", 1, 2, 3));
+      if (i % 3 == 0) {
+        a.deleteNode(i / 2);
+      } else if (i % 3 == 1) {
+        a.renameNode(i - 1, "R" + i);
+        a.setHoursDeadline(a.computeCriticalPathTime() + i);
+      }
+      g.record(a, 10 * i);
+      expected.add(describe(a));
+    }
+
+    assertEquals(-1, g.indexAt(-1));
+    for (int t = 0; t < 1000; t += 7) {
+      assertEquals(expected.get(t / 10), describe(g.networkAt(g.indexAt(t))));
+    }
+    assertEquals(expected.get(99), describe(g.networkAt(g.indexAt(Long.MAX_VALUE))));
+
+    assertArrayEquals(new long[]{100, 110, 120}, g.timestampsBetween(95, 120));
+    assertEquals(100, g.timestampsBetween(Long.MIN_VALUE, Long.MAX_VALUE).length);
+    assertEquals(0, g.timestampsBetween(121, 129).length);
+
+    // A clock set back does not break the order of our timestamps.
+    g.record(a, 5);
+    assertEquals(990, g.latest().timestamp);
+    assertEquals(100, g.indexAt(990));
+    assertEquals(98, g.indexAt(989));
+    spill.close();
+  }
+
+  /**
+   * Verify that the oldest versions are dropped in order, and that the history keeps its order as it grows past its
+   * initial capacity while dropping from the start.
+   */
+  @Test
+  public void testDropOldest() {
+    for (int i = 0; i < 100; i++) {
+      h.record(new ActivityNetwork(1, "N" + i), i);
+      if (i % 2 == 1) {
+        assertEquals(i / 2, h.dropOldest().timestamp);
+      }
+    }
+
+    assertEquals(50, h.size());
+    assertEquals(50, h.oldest().timestamp);
+    assertEquals(99, h.latest().timestamp);
+
+    h.undo();
+    h.clear();
+    assertTrue(h.isEmpty());
+    assertNull(h.latest());
+    assertNull(h.undo());
+    assertNull(h.dropOldest());
+  }
+}
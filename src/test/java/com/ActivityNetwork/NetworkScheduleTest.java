@@ -0,0 +1,123 @@
+package com.ActivityNetwork;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class NetworkScheduleTest {
+  /** Sorted list of nodes for all tests to operate on. */
+  private ArrayList<ActivityNode> nodes;
+
+  /**
+   * Create a diamond for all tests to operate on. Node 1 precedes nodes 2 and 3, which both precede node 4.
+   */
+  @Before
+  public void createTestNodes() {
+    nodes = new ArrayList<>(Arrays.asList(new ActivityNode(1, "A", "AA", 1, 1, 1),
+        new ActivityNode(2, "B", "BB", 5, 5, 5), new ActivityNode(3, "C", "CC", 2, 2, 2),
+        new ActivityNode(4, "D", "DD", 1, 1, 1)));
+
+    nodes.get(1).setDependencies(new HashSet<>(Collections.singletonList((long) 1)));
+    nodes.get(2).setDependencies(new HashSet<>(Collections.singletonList((long) 1)));
+    nodes.get(3).setDependencies(new HashSet<>(Arrays.asList((long) 2, (long) 3)));
+  }
+
+  /**
+   * Verify that the forward pass takes the latest finishing dependency, and the backward pass the earliest starting
+   * successor.
+   */
+  @Test
+  public void testForwardAndBackwardPass() {
+    NetworkSchedule s = new NetworkSchedule(nodes);
+
+    assertEquals(7, s.getDuration(), 1.0e-9);
+    assertEquals(6, s.getEarliestStartTime(4), 1.0e-9);
+    assertEquals(1, s.getEarliestStartTime(3), 1.0e-9);
+    assertEquals(3, s.getEarliestFinishTime(3), 1.0e-9);
+
+    assertEquals(4, s.getLatestStartTime(3), 1.0e-9);
+    assertEquals(6, s.getLatestFinishTime(3), 1.0e-9);
+    assertEquals(1, s.getLatestFinishTime(1), 1.0e-9);
+    assertEquals(0, s.getLatestStartTime(1), 1.0e-9);
+  }
+
+  /**
+   * Verify that the critical path goes through the longer branch of the diamond.
+   */
+  @Test
+  public void testCriticalPath() {
+    NetworkSchedule s = new NetworkSchedule(nodes);
+    assertEquals(Arrays.asList((long) 1, (long) 2, (long) 4), s.getCriticalPath());
+  }
+
+  /**
+   * Verify the slack of every node of the diamond. Only node 3 is off the critical path, and can be delayed by 3.
+   */
+  @Test
+  public void testSlackReport() {
+    SlackReport r = new NetworkSchedule(nodes).getSlackReport();
+
+    assertArrayEquals(new long[]{1, 2, 3, 4}, r.getNodeIds());
+    assertArrayEquals(new double[]{0, 0, 3, 0}, r.getTotalSlack(), 1.0e-9);
+    assertArrayEquals(new double[]{0, 0, 3, 0}, r.getFreeSlack(), 1.0e-9);
+    assertArrayEquals(new double[]{0, 0, 3, 0}, r.getSafetySlack(), 1.0e-9);
+    assertArrayEquals(new double[]{0, 0, 3, 0}, r.getIndependentSlack(), 1.0e-9);
+  }
+
+  /**
+   * Verify that a schedule updated after a change of expected time (as a copy, or in place) matches a schedule computed
+   * from scratch, both when the change moves the network duration and when it does not.
+   */
+  @Test
+  public void testExpectedTimeUpdate() {
+    NetworkSchedule original = new NetworkSchedule(nodes), s = original, inPlace = new NetworkSchedule(nodes);
+
+    for (double[] change : new double[][]{{3, 2}, {3, 9}, {2, 1}, {1, 4}, {4, 0}, {3, 2}}) {
+      nodes.get((int) change[0] - 1).setTimes(change[1], change[1], change[1]);
+      NetworkSchedule updated = s.withExpectedTime((long) change[0], change[1]);
+      NetworkSchedule expected = new NetworkSchedule(nodes);
+      inPlace.getSlackReport();
+      inPlace.setExpectedTime((long) change[0], change[1]);
+      assertEquals(expected.getCriticalPath(), inPlace.getCriticalPath());
+      assertArrayEquals(expected.getSlackReport().getTotalSlack(), inPlace.getSlackReport().getTotalSlack(), 1.0e-9);
+
+      assertEquals(expected.getDuration(), updated.getDuration(), 1.0e-9);
+      assertEquals(expected.getCriticalPath(), updated.getCriticalPath());
+      for (long i = 1; i <= 4; i++) {
+        assertEquals(expected.getEarliestStartTime(i), updated.getEarliestStartTime(i), 1.0e-9);
+        assertEquals(expected.getEarliestFinishTime(i), updated.getEarliestFinishTime(i), 1.0e-9);
+        assertEquals(expected.getLatestStartTime(i), updated.getLatestStartTime(i), 1.0e-9);
+        assertEquals(expected.getLatestFinishTime(i), updated.getLatestFinishTime(i), 1.0e-9);
+        assertEquals(expected.getEarliestFinishTime(i), inPlace.getEarliestFinishTime(i), 1.0e-9);
+        assertEquals(expected.getLatestStartTime(i), inPlace.getLatestStartTime(i), 1.0e-9);
+      }
+      s = updated;
+    }
+
+    // The original schedule is left as it was.
+    assertEquals(7, original.getDuration(), 1.0e-9);
+    assertEquals(1, original.getEarliestStartTime(3), 1.0e-9);
+  }
+
+  /**
+   * Verify that an empty network has an empty schedule, and that unknown nodes are reported.
+   */
+  @Test
+  public void testEmptySchedule() {
+    NetworkSchedule s = new NetworkSchedule(new ArrayList<>());
+
+    assertEquals(0, s.getDuration(), 1.0e-9);
+    assertFalse(s.containsNode(1));
+    assertTrue(s.getCriticalPath().isEmpty());
+    try {
+      s.getEarliestStartTime(1);
+      fail();
+    } catch (RuntimeException ignored) {
+    }
+  }
+}
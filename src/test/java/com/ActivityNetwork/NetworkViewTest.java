@@ -0,0 +1,48 @@
+package com.ActivityNetwork;
+
+import org.junit.*;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class NetworkViewTest {
+  /**
+   * Verify that a view reads the latest network of its history without cloning it, and refuses to be read once the
+   * history has moved on to another network.
+   */
+  @Test
+  public void testViewFollowsHistory() {
+    NetworkHistory h = new NetworkHistory(1);
+    ActivityNetwork a = new ActivityNetwork(1, "A");
+    a.insertNode(new ActivityNode(1, "B", "BB", 1, 2, 3));
+    a.insertNode(new ActivityNode(2, "C", "CC", 1, 2, 3));
+    a.setDependencies(2, Collections.singleton((long) 1));
+    h.record(a, 10);
+
+    NetworkView v = new NetworkView(h, h.latestNetwork());
+    assertSame(h.latestNetwork().viewNode(1), v.viewNode(1));
+    assertEquals(2, v.getNodes().size());
+    assertEquals(2, v.nodeIdFromName("C"));
+    assertTrue(v.isUpstream(1, 2));
+    assertEquals(4, v.computeCriticalPathTime(), 1.0e-9);
+
+    // Changing the recorded network gives the history its own copy, which the view keeps showing.
+    a.deleteNode(1);
+    assertEquals(2, v.getNodes().size());
+
+    h.record(a, 20);
+    try {
+      v.getNodes();
+      fail();
+    } catch (IllegalStateException e) {
+      assertEquals(1, new NetworkView(h, h.latestNetwork()).getNodes().size());
+    }
+
+    // A view of a network outside of any history stays valid.
+    NetworkView w = new NetworkView(null, new ActivityNetwork(0, "Bad"));
+    h.clear();
+    assertEquals(0, w.getNetworkId());
+    assertTrue(w.getNodes().isEmpty());
+  }
+}
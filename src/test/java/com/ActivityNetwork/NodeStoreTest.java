@@ -0,0 +1,171 @@
+package com.ActivityNetwork;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class NodeStoreTest {
+  /** Store for all tests to operate on. */
+  private NodeStore s;
+
+  /**
+   * Create a diamond for all tests to operate on, inserted out of order. Node 1 precedes nodes 2 and 3, which both
+   * precede node 4. Node 4 also depends on node 9, which is never added.
+   */
+  @Before
+  public void createTestStore() {
+    s = new NodeStore(1);
+    s.addNode(4, "D", "DD", 1, 1, 1, new long[]{2, 3, 9});
+    s.addNode(2, "B", "B\u00e9", 5, 5, 5, new long[]{1});
+    s.addNode(1, "A", "", 1, 1, 1, new long[0]);
+    s.addNode(3, "C", "CC", 1, 2, 3, new long[]{1});
+  }
+
+  /**
+   * Verify that every field is read back as it was added, and that IDs are unique.
+   */
+  @Test
+  public void testFields() {
+    assertEquals(4, s.size());
+    assertFalse(s.addNode(1, "E", "EE", 1, 1, 1, new long[0]));
+    assertEquals(4, s.size());
+
+    int i = s.indexOf(2);
+    assertEquals(1, i);
+    assertEquals(-1, s.indexOf(5));
+    assertEquals(2, s.getNodeId(i));
+    assertEquals("B", s.getName(i));
+    assertEquals("B\u00e9", s.getDescription(i));
+    assertEquals("", s.getDescription(s.indexOf(1)));
+    assertArrayEquals(new long[]{2, 3, 9}, s.getDependencies(0));
+
+    i = s.indexOf(3);
+    assertEquals(1, s.getOptimisticTime(i), 1.0e-9);
+    assertEquals(2, s.getNormalTime(i), 1.0e-9);
+    assertEquals(3, s.getPessimisticTime(i), 1.0e-9);
+    assertEquals(2, s.getExpectedTime(i), 1.0e-9);
+
+    s.setTimes(i, 3, 3, 3);
+    assertEquals(3, s.getExpectedTime(i), 1.0e-9);
+  }
+
+  /**
+   * Verify that the store is scheduled in topological order without building nodes, and that cycles are found.
+   */
+  @Test
+  public void testSchedule() {
+    NetworkSchedule schedule = s.computeSchedule();
+    assertEquals(7, schedule.getDuration(), 1.0e-9);
+    assertEquals(Arrays.asList((long) 1, (long) 2, (long) 4), schedule.getCriticalPath());
+    assertEquals(4, schedule.getLatestStartTime(3), 1.0e-9);
+
+    s.addNode(9, "I", "II", 1, 1, 1, new long[]{4});
+    assertNull(s.computeSchedule());
+  }
+
+  /**
+   * Verify that a network survives a round trip through a store, and that both are scheduled the same way.
+   */
+  @Test
+  public void testNetworkRoundTrip() {
+    ActivityNetwork a = s.toNetwork(1, "Diamond");
+    assertNotNull(a);
+    assertEquals(4, a.getNodeList().size());
+    assertEquals("B\u00e9", a.retrieveNode(2).getDescription());
+    assertEquals(new HashSet<>(Arrays.asList((long) 2, (long) 3, (long) 9)), a.retrieveNode(4).getDependencies());
+    assertEquals(s.computeSchedule().getDuration(), a.computeCriticalPathTime(), 1.0e-9);
+
+    NodeStore t = NodeStore.of(a);
+    assertEquals(4, t.size());
+    assertEquals("D", t.getName(t.indexOf(4)));
+    assertEquals(a.computeCriticalPath(), t.computeSchedule().getCriticalPath());
+
+    // Repeated names and cycles are rejected, and leave the store open to changes.
+    t.addNode(5, "A", "AA", 1, 1, 1, new long[0]);
+    assertNull(t.toNetwork(1, "Diamond"));
+    NodeStore u = new NodeStore(2);
+    u.addNode(1, "A", "", 1, 1, 1, new long[]{2});
+    u.addNode(2, "B", "", 1, 1, 1, new long[]{1});
+    assertNull(u.toNetwork(1, "Cycle"));
+    u.setTimes(0, 2, 2, 2);
+  }
+
+  /**
+   * Verify that a network backed by a store answers reads and schedules from it, that its twins share it, and that
+   * changing the network builds its nodes without changing the store or its twins.
+   */
+  @Test
+  public void testStoredNetwork() {
+    ActivityNetwork a = s.toNetwork(1, "Diamond"), b = a.twin();
+    assertTrue(a.sharesStoreWith(b));
+    assertEquals(7, a.computeCriticalPathTime(), 1.0e-9);
+    assertEquals(Arrays.asList((long) 1, (long) 2, (long) 4), a.computeCriticalPath());
+    assertEquals(0, a.computeTotalSlack(2), 1.0e-9);
+    assertEquals(1, a.getStartNodeId());
+    assertEquals("C", a.nodeNameFromId(3));
+    assertEquals("", a.nodeNameFromId(9));
+    assertEquals("CC", a.viewNode(3).getDescription());
+    assertTrue(a.isUpstream(1, 4));
+    assertFalse(a.isUpstream(4, 1));
+    assertEquals(Arrays.asList((long) 1, (long) 2, (long) 3, (long) 4),
+        a.getNodes().stream().map(ActivityNodeView::getNodeId).collect(java.util.stream.Collectors.toList()));
+    assertTrue(a.sharesStoreWith(b));
+
+    // A sealed store can no longer be changed.
+    try {
+      s.addNode(5, "E", "EE", 1, 1, 1, new long[0]);
+      fail();
+    } catch (IllegalStateException ignored) {
+    }
+
+    // Changing a node builds the nodes of the changed network only.
+    ActivityNode c = a.retrieveNode(3);
+    c.setTimes(9, 9, 9);
+    assertTrue(a.updateNode(c));
+    assertFalse(a.sharesStoreWith(b));
+    assertEquals(11, a.computeCriticalPathTime(), 1.0e-9);
+    assertEquals(7, b.computeCriticalPathTime(), 1.0e-9);
+    assertEquals(2, s.getExpectedTime(s.indexOf(3)), 1.0e-9);
+    assertTrue(a.insertNode(new ActivityNode(5, "E", "EE", 1, 1, 1)));
+    assertFalse(b.isNodeInNetwork(5));
+    assertTrue(b.deleteNode(1));
+    assertEquals(5, a.getNodeList().size());
+    assertEquals(3, b.getNodes().size());
+
+    // Versions backed by the same store have no changes between them.
+    assertEquals(0, NetworkDelta.between(s.toNetwork(1, "Diamond"), s.toNetwork(1, "Diamond")).size());
+  }
+
+  /**
+   * Verify that a store too large to address is refused up front, instead of overflowing its buffer size.
+   */
+  @Test
+  public void testCapacityLimit() {
+    try {
+      new NodeStore(40000000);
+      fail();
+    } catch (RuntimeException e) {
+      assertEquals("Node store is full.", e.getMessage());
+    }
+  }
+
+  /**
+   * Verify that a store grows past its initial capacity, and schedules a long chain.
+   */
+  @Test
+  public void testGrowth() {
+    NodeStore t = new NodeStore(1);
+    for (int i = 0; i < 100000; i++) {
+      t.addNode(i, "N" + i, "Node " + i, 1, 1, 1, (i == 0) ? new long[0] : new long[]{i - 1});
+    }
+
+    assertEquals(100000, t.size());
+    assertEquals("Node 99999", t.getDescription(99999));
+    assertEquals(100000, t.computeSchedule().getDuration(), 1.0e-9);
+    assertEquals(Collections.singletonList((long) 0), t.computeSchedule().getCriticalPath().subList(0, 1));
+  }
+}
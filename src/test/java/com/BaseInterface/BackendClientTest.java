@@ -0,0 +1,99 @@
+package com.BaseInterface;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class BackendClientTest {
+  /** Local server standing in for the backend. Answers every request with a short body. */
+  private HttpServer server;
+
+  /** Remote ports of the connections the server was called on. One port per connection. */
+  private Set<Integer> ports;
+
+  /**
+   * Start a local server, and use a pool of a single connection with a short wait for a free connection.
+   */
+  @Before
+  public void startServer() throws IOException {
+    ports = Collections.synchronizedSet(new HashSet<>());
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", e -> {
+      ports.add(e.getRemoteAddress().getPort());
+      byte[] b = "ok".getBytes();
+      e.sendResponseHeaders(200, b.length);
+      try (OutputStream o = e.getResponseBody()) {
+        o.write(b);
+      }
+    });
+    server.start();
+
+    BackendClient.shutdown();
+    BackendClient.setConnectionLimits(1, 1);
+    BackendClient.setTimeouts(500, 5000);
+  }
+
+  /**
+   * Stop the local server, and restore the default pool and timeouts.
+   */
+  @After
+  public void stopServer() {
+    BackendClient.shutdown();
+    BackendClient.setConnectionLimits(20, 10);
+    BackendClient.setTimeouts(5000, 30000);
+    server.stop(0);
+  }
+
+  /**
+   * Call the local server with the shared client.
+   *
+   * @return The response of the server, which is not released.
+   */
+  private HttpResponse call() throws IOException {
+    return BackendClient.getClient().execute(new HttpGet("http://127.0.0.1:" + server.getAddress().getPort() + "/"));
+  }
+
+  /**
+   * Verify that every call uses the same client, and that a released response gives its connection back to the pool,
+   * where the next call picks it up again.
+   */
+  @Test
+  public void testReleasedConnectionIsReused() throws IOException {
+    assertSame(BackendClient.getClient(), BackendClient.getClient());
+
+    for (int i = 0; i < 3; i++) {
+      HttpResponse response = call();
+      assertEquals(200, response.getStatusLine().getStatusCode());
+      BackendClient.release(response);
+    }
+    assertEquals(1, ports.size());
+  }
+
+  /**
+   * Verify that a response that was not released keeps its connection, so that a call on a full pool times out.
+   */
+  @Test
+  public void testUnreleasedConnectionIsKept() throws IOException {
+    HttpResponse response = call();
+    try {
+      call();
+      fail();
+    } catch (ConnectionPoolTimeoutException e) {
+      BackendClient.release(response);
+    }
+
+    BackendClient.release(call());
+    assertEquals(1, ports.size());
+  }
+}